@@ -0,0 +1,158 @@
+package progetto;
+
+/**
+ * Query punto a punto con A* e i limiti inferiori dei landmark (ALT). Dijkstra
+ * da s ordina i vertici per distTo[v] + h(v), con h(v) = lowerBound(v, t) di
+ * Landmarks: la visita punta verso t e si ferma quando t viene estratto.
+ *
+ * Per ogni landmark il limite d(L, t) - d(L, v) (e d(v, L) - d(t, L)) e' un
+ * potenziale consistente, cioe' i costi ridotti w(u, v) - h(u) + h(v) non sono
+ * negativi, e il massimo di potenziali consistenti lo e' ancora: un vertice
+ * estratto ha gia' la sua distanza definitiva, come in Dijkstra. I vertici con
+ * h infinito non raggiungono t e non vengono inseriti nella coda.
+ *
+ * Gli array di lavoro sono riutilizzati tra una query e l'altra e vengono
+ * ripuliti solo sui vertici toccati. I pesi del grafo non devono cambiare dopo
+ * la costruzione di Landmarks.
+ */
+public class ALTSP {
+	private final Landmarks landmarks;
+	private final EdgeWeightedDigraph G;
+	private final IndexMinDoublePQ pq;
+	/**
+	 * distTo[v] = distanza da s a v trovata finora, h[v] = lowerBound(v, t),
+	 * calcolato alla prima visita di v (seen[v]).
+	 */
+	private final double[] distTo, h;
+	private final boolean[] seen, done;
+	private final DirectedEdge[] edgeTo;
+	/**
+	 * Vertici con seen true (da ripulire alla query successiva).
+	 */
+	private final int[] touched;
+	private int nTouched;
+	private int nSettled;
+	private int s, t;
+
+	/**
+	 * Alloca gli array di lavoro per il grafo di landmarks.
+	 */
+	public ALTSP(Landmarks landmarks) {
+		this.landmarks = landmarks;
+		this.G = landmarks.graph();
+		int V = G.V();
+		this.pq = new IndexMinDoublePQ(V);
+		this.distTo = new double[V];
+		this.h = new double[V];
+		this.seen = new boolean[V];
+		this.done = new boolean[V];
+		this.edgeTo = new DirectedEdge[V];
+		this.touched = new int[V];
+		for (int v = 0; v < V; v++)
+			distTo[v] = Double.POSITIVE_INFINITY;
+		this.t = -1;
+	}
+
+	/**
+	 * Calcola distanza e uno shortest path da s a t.
+	 *
+	 * @param s
+	 *            vertice di partenza
+	 * @param t
+	 *            vertice di arrivo
+	 */
+	public void run(int s, int t) {
+		validateVertex(s);
+		validateVertex(t);
+		reset();
+		this.s = s;
+		this.t = t;
+		if (!visit(s))
+			return;
+		distTo[s] = 0.0;
+		pq.insert(s, h[s]);
+		while (!pq.isEmpty()) {
+			int v = pq.delMin();
+			done[v] = true;
+			nSettled++;
+			if (v == t)
+				return;
+			for (DirectedEdge e : G.adj(v))
+				relax(e);
+		}
+	}
+
+	private void relax(DirectedEdge e) {
+		int v = e.from(), w = e.to();
+		if (done[w] || !visit(w))
+			return;
+		double d = distTo[v] + e.weight();
+		if (d < distTo[w]) {
+			distTo[w] = d;
+			edgeTo[w] = e;
+			if (pq.contains(w))
+				pq.decreaseKey(w, d + h[w]);
+			else
+				pq.insert(w, d + h[w]);
+		}
+	}
+
+	/**
+	 * Calcola h[v] alla prima visita di v; false se v non puo' raggiungere t.
+	 */
+	private boolean visit(int v) {
+		if (!seen[v]) {
+			seen[v] = true;
+			touched[nTouched++] = v;
+			h[v] = landmarks.lowerBound(v, t, landmarks.k());
+		}
+		return h[v] < Double.POSITIVE_INFINITY;
+	}
+
+	private void reset() {
+		pq.clear();
+		for (int i = 0; i < nTouched; i++) {
+			int v = touched[i];
+			distTo[v] = Double.POSITIVE_INFINITY;
+			seen[v] = false;
+			done[v] = false;
+			edgeTo[v] = null;
+		}
+		nTouched = 0;
+		nSettled = 0;
+	}
+
+	/**
+	 * Distanza da s a t dell'ultima query, +infinito se t non e' raggiungibile.
+	 */
+	public double distance() {
+		return t == -1 ? Double.POSITIVE_INFINITY : distTo[t];
+	}
+
+	/**
+	 * Uno shortest path da s a t dell'ultima query, o null se t non e'
+	 * raggiungibile.
+	 */
+	public Iterable<DirectedEdge> path() {
+		if (distance() == Double.POSITIVE_INFINITY)
+			return null;
+		Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+		for (DirectedEdge e = edgeTo[t]; e != null; e = edgeTo[e.from()])
+			path.push(e);
+		return path;
+	}
+
+	/**
+	 * Numero di vertici estratti dall'ultima query, per confrontarla con
+	 * Dijkstra o con BidirectionalSP.
+	 */
+	public int settled() {
+		return nSettled;
+	}
+
+	// throw an IllegalArgumentException unless {@code 0 <= v < V}
+	private void validateVertex(int v) {
+		if (v < 0 || v >= G.V())
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (G.V() - 1));
+	}
+}
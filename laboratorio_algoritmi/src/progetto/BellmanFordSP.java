@@ -1,56 +1,287 @@
 package progetto;
 
+import java.util.ArrayList;
+
+/**
+ * Bellman-Ford con lista di lavoro. L'ordine in cui i vertici vengono
+ * rilassati e' scelto con Strategy:
+ * <ul>
+ * <li>FIFO: coda semplice;</li>
+ * <li>SLF (Small Label First): un vertice entra in testa se la sua distanza e'
+ * minore di quella del vertice in testa, altrimenti in coda;</li>
+ * <li>LLL (Large Label Last): il vertice in testa viene spostato in fondo
+ * finche' la sua distanza supera la media di quelle nella lista;</li>
+ * <li>SLF_LLL: entrambe;</li>
+ * <li>GOLDBERG_RADZIK: a passate; in ogni passata si rilassano, in ordine
+ * topologico sul grafo degli archi con costo ridotto <= 0, i vertici
+ * raggiungibili da quelli migliorati nella passata precedente che hanno un
+ * arco uscente di costo ridotto negativo.</li>
+ * </ul>
+ * cost() riporta il numero di archi esaminati, per confrontare le strategie.
+ *
+ * I cicli negativi sono rilevati con la disassemblazione dei sottoalberi di
+ * Tarjan: l'albero dei cammini minimi e' mantenuto come lista in preordine
+ * (next, prev, depth) e quando la distanza di w migliora tutto il sottoalbero
+ * di w viene staccato, perche' le distanze dei suoi vertici non sono piu'
+ * aggiornate. Se il vertice v da cui parte l'arco rilassato e' nel
+ * sottoalbero di w, l'arco chiude un ciclo negativo. Ogni vertice staccato era
+ * stato inserito da un rilassamento, quindi il controllo costa al piu' quanto
+ * i rilassamenti; i vertici staccati ancora in lista vengono saltati, dato che
+ * verranno migliorati di nuovo. Il controllo non dipende dall'ordine dei
+ * rilassamenti, quindi vale per tutte le strategie.
+ */
 public class BellmanFordSP {
+	public enum Strategy {
+		FIFO, SLF, LLL, SLF_LLL, GOLDBERG_RADZIK
+	}
+
 	private double[] distTo; // distTo[v] = distance of shortest s->v path
 	private DirectedEdge[] edgeTo; // edgeTo[v] = last edge on shortest s->v
 									// path
-	private boolean[] onQueue; // onQueue[v] = is v currently on the queue?
-	private Queue<Integer> queue; // queue of vertices to relax
-	private int cost; // number of calls to relax()
+	private boolean[] onQueue; // onQueue[v] = is v currently on the work list?
+	private Strategy strategy;
+	// work list as a circular deque: size vertices starting at head; sum of
+	// their distances for LLL
+	private int[] deque;
+	private int head, size;
+	private double sum;
+	private long cost; // number of edges relaxed
+	private long maxCost = Long.MAX_VALUE; // stop after this many edges relaxed
 	private Iterable<DirectedEdge> cycle; // negative cycle (or null if no such
 											// cycle)
+	// shortest-path tree as a circular list in preorder, with a sentinel root
+	// at index V; depth[v] = -1 if v is not in the tree
+	private int[] next, prev, depth;
+	private int root;
 
 	public BellmanFordSP(EdgeWeightedDigraph G, int s) {
-		distTo = new double[G.V()];
-		edgeTo = new DirectedEdge[G.V()];
-		onQueue = new boolean[G.V()];
+		this(G, s, Strategy.FIFO);
+	}
+
+	public BellmanFordSP(EdgeWeightedDigraph G, int s, Strategy strategy) {
+		init(G, strategy);
 		for (int v = 0; v < G.V(); v++)
 			distTo[v] = Double.POSITIVE_INFINITY;
 		distTo[s] = 0.0;
+		insertAfter(root, s);
+		push(s);
+		run(G);
 
-		// Bellman-Ford algorithm
-		queue = new Queue<Integer>();
-		queue.enqueue(s);
-		onQueue[s] = true;
-		while (!queue.isEmpty() && !hasNegativeCycle()) {
-			int v = queue.dequeue();
-			onQueue[v] = false;
-			relax(G, v);
+		assert check(G, s);
+	}
+
+	// Bellman-Ford from a virtual source with a 0-weight edge to every vertex,
+	// without adding it to G: every vertex starts at distance 0 and on the queue.
+	// distTo() are then Johnson potentials for G.
+	public BellmanFordSP(EdgeWeightedDigraph G) {
+		this(G, Strategy.FIFO);
+	}
+
+	public BellmanFordSP(EdgeWeightedDigraph G, Strategy strategy) {
+		this(G, strategy, Long.MAX_VALUE);
+	}
+
+	// as BellmanFordSP(G, strategy), but gives up after about maxCost edges
+	// relaxed; then isComplete() is false and there are no distances
+	public BellmanFordSP(EdgeWeightedDigraph G, Strategy strategy, long maxCost) {
+		init(G, strategy);
+		this.maxCost = maxCost;
+		for (int v = G.V() - 1; v >= 0; v--) {
+			distTo[v] = 0.0;
+			insertAfter(root, v);
 		}
+		for (int v = 0; v < G.V(); v++)
+			push(v);
+		run(G);
 
-		assert check(G, s);
+		assert !isComplete() || check(G, -1);
+	}
+
+	private void init(EdgeWeightedDigraph G, Strategy strategy) {
+		this.strategy = strategy;
+		distTo = new double[G.V()];
+		edgeTo = new DirectedEdge[G.V()];
+		onQueue = new boolean[G.V()];
+		deque = new int[G.V()];
+		initTree(G.V());
+	}
+
+	// Bellman-Ford algorithm
+	private void run(EdgeWeightedDigraph G) {
+		if (strategy == Strategy.GOLDBERG_RADZIK) {
+			goldbergRadzik(G);
+			return;
+		}
+		while (size > 0 && !hasNegativeCycle() && cost < maxCost) {
+			int v = pop();
+			if (depth[v] >= 0)
+				relax(G, v);
+		}
+	}
+
+	// add w to the work list (w is not on it)
+	private void push(int w) {
+		onQueue[w] = true;
+		if (strategy == Strategy.GOLDBERG_RADZIK) {
+			deque[size++] = w;
+			return;
+		}
+		if ((strategy == Strategy.SLF || strategy == Strategy.SLF_LLL) && size > 0
+				&& distTo[w] < distTo[deque[head]]) {
+			head = (head + deque.length - 1) % deque.length;
+			deque[head] = w;
+		} else
+			deque[(head + size) % deque.length] = w;
+		size++;
+		sum += distTo[w];
+	}
+
+	// remove the next vertex to relax from the work list
+	private int pop() {
+		if (strategy == Strategy.LLL || strategy == Strategy.SLF_LLL) {
+			// the average is not below the minimum, so this stops; the bound only
+			// guards against rounding in sum
+			for (int i = 1; i < size && distTo[deque[head]] * size > sum; i++) {
+				deque[(head + size) % deque.length] = deque[head];
+				head = (head + 1) % deque.length;
+			}
+		}
+		int v = deque[head];
+		head = (head + 1) % deque.length;
+		size--;
+		sum -= distTo[v];
+		onQueue[v] = false;
+		return v;
+	}
+
+	// Goldberg-Radzik: deque[0..size-1] holds the vertices improved since the
+	// last pass (set B); each pass scans, in topological order, the vertices
+	// reachable from those of B with a negative reduced-cost out-edge
+	private void goldbergRadzik(EdgeWeightedDigraph G) {
+		int V = G.V();
+		int[] order = new int[V];
+		int[] mark = new int[V];
+		int[] stack = new int[V];
+		// cursor[v] = index in adjacency of the next out-edge of v to scan in the
+		// depth-first search
+		int[] offsets = G.edgeOffsets();
+		ArrayList<DirectedEdge> adjacency = G.edgesAsArray();
+		int[] cursor = new int[V];
+		int pass = 0;
+		while (size > 0 && !hasNegativeCycle() && cost < maxCost) {
+			pass++;
+			// depth-first search on the admissible graph (reduced cost <= 0, between
+			// reached vertices): the reverse postorder is a topological order, up to
+			// 0-cost cycles
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				int b = deque[i];
+				onQueue[b] = false;
+				if (mark[b] == pass || depth[b] < 0 || !hasNegativeOutEdge(G, b))
+					continue;
+				int top = 0;
+				stack[top++] = b;
+				mark[b] = pass;
+				cursor[b] = offsets[b];
+				while (top > 0) {
+					int v = stack[top - 1];
+					if (cursor[v] < offsets[v + 1]) {
+						DirectedEdge e = adjacency.get(cursor[v]++);
+						int w = e.to();
+						if (mark[w] != pass && distTo[w] < Double.POSITIVE_INFINITY
+								&& distTo[v] + e.weight() <= distTo[w]) {
+							mark[w] = pass;
+							cursor[w] = offsets[w];
+							stack[top++] = w;
+						}
+					} else {
+						order[count++] = v;
+						top--;
+					}
+				}
+			}
+			size = 0;
+			for (int i = count - 1; i >= 0 && !hasNegativeCycle(); i--)
+				if (depth[order[i]] >= 0)
+					relax(G, order[i]);
+		}
+	}
+
+	private boolean hasNegativeOutEdge(EdgeWeightedDigraph G, int v) {
+		for (DirectedEdge e : G.adj(v))
+			if (distTo[v] + e.weight() < distTo[e.to()])
+				return true;
+		return false;
 	}
 
 	// relax vertex v and put other endpoints on queue if changed
 	private void relax(EdgeWeightedDigraph G, int v) {
 		for (DirectedEdge e : G.adj(v)) {
+			cost++;
 			int w = e.to();
 			if (distTo[w] > distTo[v] + e.weight()) {
+				if (!detachSubtree(w, v)) {
+					findNegativeCycle(e);
+					return; // found a negative cycle
+				}
+				if (onQueue[w])
+					sum -= distTo[w] - (distTo[v] + e.weight());
 				distTo[w] = distTo[v] + e.weight();
 				edgeTo[w] = e;
-				if (!onQueue[w]) {
-					queue.enqueue(w);
-					onQueue[w] = true;
-				}
-			}
-			if (cost++ % G.V() == 0) {
-				findNegativeCycle();
-				if (hasNegativeCycle())
-					return; // found a negative cycle
+				insertAfter(v, w);
+				if (!onQueue[w])
+					push(w);
 			}
 		}
 	}
 
+	private void initTree(int V) {
+		next = new int[V + 1];
+		prev = new int[V + 1];
+		depth = new int[V + 1];
+		root = V;
+		for (int v = 0; v < V; v++)
+			depth[v] = -1;
+		next[root] = root;
+		prev[root] = root;
+	}
+
+	// make w the first child of v (w is not in the tree)
+	private void insertAfter(int v, int w) {
+		next[w] = next[v];
+		prev[w] = v;
+		prev[next[v]] = w;
+		next[v] = w;
+		depth[w] = depth[v] + 1;
+	}
+
+	// remove w and its subtree from the tree; return false, leaving the tree
+	// unchanged, if v is w or one of its descendants. The subtree is scanned
+	// twice: first to find its end and look for v, then to clear the depths
+	private boolean detachSubtree(int w, int v) {
+		if (depth[w] < 0)
+			return true;
+		if (w == v)
+			return false;
+		int x = next[w];
+		while (depth[x] > depth[w]) {
+			if (x == v)
+				return false;
+			x = next[x];
+		}
+		for (int y = next[w]; y != x; y = next[y])
+			depth[y] = -1;
+		next[prev[w]] = x;
+		prev[x] = prev[w];
+		depth[w] = -1;
+		return true;
+	}
+
+	// number of edges relaxed
+	public long cost() {
+		return cost;
+	}
+
 	public boolean hasNegativeCycle() {
 		return cycle != null;
 	}
@@ -59,22 +290,26 @@ public class BellmanFordSP {
 		return cycle;
 	}
 
-	// by finding a cycle in predecessor graph
-	private void findNegativeCycle() {
-		int V = edgeTo.length;
-		EdgeWeightedDigraph spt = new EdgeWeightedDigraph(V);
-		for (int v = 0; v < V; v++)
-			if (edgeTo[v] != null)
-				spt.addEdge(edgeTo[v]);
+	// e = v->w closes a negative cycle: the tree path from w to v, then e
+	private void findNegativeCycle(DirectedEdge e) {
+		Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+		path.push(e);
+		for (int x = e.from(); x != e.to(); x = edgeTo[x].from())
+			path.push(edgeTo[x]);
+		cycle = path;
+	}
 
-		EdgeWeightedDirectedCycle finder = new EdgeWeightedDirectedCycle(spt);
-		cycle = finder.cycle();
+	// false if the search gave up before the distances were final
+	public boolean isComplete() {
+		return size == 0 || hasNegativeCycle();
 	}
 
 	public double distTo(int v) {
 		validateVertex(v);
 		if (hasNegativeCycle())
 			throw new UnsupportedOperationException("Negative cost cycle exists");
+		if (!isComplete())
+			throw new UnsupportedOperationException("Relaxation budget exhausted");
 		return distTo[v];
 	}
 
@@ -96,7 +331,7 @@ public class BellmanFordSP {
 		return path;
 	}
 
-	// check optimality conditions: either
+	// check optimality conditions (s = -1 for the virtual source): either
 	// (i) there exists a negative cycle reacheable from s
 	// or
 	// (ii) for all edges e = v->w: distTo[w] <= distTo[v] + e.weight()
@@ -120,14 +355,14 @@ public class BellmanFordSP {
 		else {
 
 			// check that distTo[v] and edgeTo[v] are consistent
-			if (distTo[s] != 0.0 || edgeTo[s] != null) {
+			if (s >= 0 && (distTo[s] != 0.0 || edgeTo[s] != null)) {
 				System.err.println("distanceTo[s] and edgeTo[s] inconsistent");
 				return false;
 			}
 			for (int v = 0; v < G.V(); v++) {
 				if (v == s)
 					continue;
-				if (edgeTo[v] == null && distTo[v] != Double.POSITIVE_INFINITY) {
+				if (edgeTo[v] == null && distTo[v] != (s >= 0 ? Double.POSITIVE_INFINITY : 0.0)) {
 					System.err.println("distTo[] and edgeTo[] inconsistent");
 					return false;
 				}
@@ -1,40 +1,99 @@
 package progetto;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-class MyInteger {
-	int value;
-
-	MyInteger() {
-		this.value = 1;
-	}
+/**
+ * Betweenness centrality su grafi pesati (anche con pesi negativi), calcolata
+ * con l'algoritmo di Brandes dopo il ripesaggio di Johnson.
+ *
+ * Per ogni sorgente s si esegue una sola visita (BrandesSP) che calcola il
+ * numero di shortest path sigma e, all'indietro, la dipendenza di s da ogni
+ * vertice. Tempo O(V*E + V^2*log V), memoria di lavoro O(V + E).
+ *
+ * Le sorgenti possono essere distribuite su piu' thread. Sono divise in un
+ * numero fisso di blocchi contigui (che non dipende dal numero di thread):
+ * ogni blocco accumula in un proprio array e i blocchi vengono sommati in
+ * ordine, quindi i punteggi sono identici bit per bit con qualunque numero di
+ * thread. Per le esecuzioni lunghe i blocchi gia' completati possono essere
+ * salvati su file (BetweennessCheckpoint) e saltati alla ripartenza.
+ *
+ * Se tutti gli archi hanno lo stesso peso positivo gli shortest path sono
+ * quelli con meno archi: si saltano Bellman-Ford e ripesaggio e ogni sorgente
+ * e' visitata in ampiezza (BrandesBFS).
+ *
+ * Per grafi molto grandi e' disponibile una modalita' approssimata (Riondato e
+ * Kornaropoulos): si campionano r coppie (s, t) e per ognuna uno shortest path
+ * da s a t scelto uniformemente. Con probabilita' almeno 1 - delta ogni
+ * punteggio, diviso per il numero di coppie n*(n-1), dista al massimo epsilon
+ * da quello esatto.
+ *
+ * La variante adattiva (KADABRA, Borassi e Natale) estrae ogni percorso con una
+ * ricerca bidirezionale bilanciata (BidirectionalSP) e controlla
+ * periodicamente gli intervalli di confidenza di tutti i vertici, fermandosi
+ * appena sono tutti entro epsilon. La probabilita' delta e' ripartita in modo
+ * uniforme tra i vertici.
+ */
+public class BetweennessCentrality {
+	/**
+	 * Numero massimo di blocchi in cui vengono divise le sorgenti: molti piu' dei
+	 * thread, cosi' i blocchi sono brevi, pochi blocchi restano in attesa di
+	 * essere sommati e il checkpoint avanza a piccoli passi.
+	 */
+	private static final int BLOCKS = 1024;
+	/**
+	 * Blocchi che possono essere in calcolo o in attesa oltre l'ultimo sommato,
+	 * per thread: limita la memoria dei punteggi parziali (V + E double per
+	 * blocco) anche se un blocco lento trattiene la somma.
+	 */
+	private static final int WINDOW = 2;
+	/**
+	 * Costante universale del bound sulla VC-dimension (Riondato e Kornaropoulos).
+	 */
+	private static final double VC_CONSTANT = 0.5;
+	/**
+	 * Campioni estratti prima del primo controllo di convergenza.
+	 */
+	private static final int FIRST_CHECK = 100;
 
-	public void inc() {
-		this.value++;
+	/**
+	 * Strategie di campionamento per la betweenness approssimata.
+	 */
+	public enum Sampling {
+		/**
+		 * Numero fisso di campioni (Riondato e Kornaropoulos).
+		 */
+		PATHS,
+		/**
+		 * Campionamento adattivo con arresto anticipato (KADABRA).
+		 */
+		ADAPTIVE
 	}
-}
-
-public class BetweennessCentrality {
-	HashMap<Integer, HashMap<Integer, HashMap<Integer, MyInteger>>> sigmaSTV;
 	/**
-	 * Grafo su cui calcolare la misura.
+	 * Grafo su cui calcolare la misura, visto con i pesi ripesati.
 	 */
-	private EdgeWeightedDigraph G;
+	private ReweightedDigraph G;
 	/**
 	 * Punteggi. scores[i] = punteggio vertice i-esimo.
 	 */
 	private double[] scores;
 	/**
-	 * I percorsi minimi calcolati. key = vertice di partenza. value = percorsi
-	 * minimi dal vertice di partenza verso ogni altro vertice.
+	 * Punteggi degli archi, indicizzati come InputGraph.edgesAsArray(); null se non
+	 * richiesti.
+	 */
+	private double[] edgeScores;
+	/**
+	 * Tutti gli archi hanno lo stesso peso positivo?
 	 */
-	private HashMap<Integer, ArrayList<ArrayList<Integer>>> shortestPaths;
+	private boolean unweighted;
 	/**
-	 * Di supporto per sigmaST(s, t)
+	 * Numero di campioni usati; 0 se i punteggi sono esatti.
 	 */
-	private HashSet<Integer> containedVertices;
+	private int samples;
 
 	/**
 	 * Classe per la misura di betweeness centrality.
@@ -43,141 +102,472 @@ public class BetweennessCentrality {
 	 *            grafo di input.
 	 */
 	public BetweennessCentrality(EdgeWeightedDigraph InputGraph) {
-		this.G = new EdgeWeightedDigraph(InputGraph.V() + 1);
-		for (DirectedEdge e : InputGraph.edges())
-			this.G.addEdge(e);
-		this.scores = new double[G.V()];
-		this.shortestPaths = new HashMap<>(32);
-		this.containedVertices = new HashSet<>(32);
-		int V = this.G.V();
-		this.sigmaSTV = new HashMap<Integer, HashMap<Integer, HashMap<Integer, MyInteger>>>(V);
-		for (int i = 0; i < V; i++)
-			this.sigmaSTV.put(i, new HashMap<>(V));
-		Stopwatch BellmanFordSW = new Stopwatch();
-		int q = V - 1;
-		/*
-		 * Aggiungo archi q --> v, di peso 0 per ogni v != q in G.
-		 */
-		for (int i = 0; i < q; i++)
-			G.addEdge(new DirectedEdge(q, i, 0));
-		BellmanFordSP bfsp = new BellmanFordSP(this.G, q);
-		System.out.printf("BellmanFordSP completato in %f secondi.\n", BellmanFordSW.elapsedTime());
-		if (bfsp.hasNegativeCycle()) {
-			System.out.println("Rilevato ciclo negativo!");
-			for (DirectedEdge e : bfsp.negativeCycle())
-				StdOut.println(e);
-		} else {
-			/*
-			 * Elimino gli archi che partono da q.
-			 */
-			G.getAdg()[q].clear();
-			/*
-			 * Ripeso gli archi nel grafo.
-			 */
-			for (DirectedEdge de : this.G.edges())
-				de.setWeight(de.weight() + bfsp.distTo(de.from()) - bfsp.distTo(de.to()));
+		this(InputGraph, 1);
+	}
+
+	/**
+	 * Classe per la misura di betweeness centrality, con le sorgenti distribuite
+	 * su piu' thread.
+	 * 
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @param threads
+	 *            numero di thread da usare.
+	 */
+	public BetweennessCentrality(EdgeWeightedDigraph InputGraph, int threads) {
+		this(InputGraph, threads, false);
+	}
+
+	/**
+	 * Classe per la misura di betweeness centrality, con le sorgenti distribuite
+	 * su piu' thread e, se richiesto, la betweenness degli archi calcolata nella
+	 * stessa visita.
+	 * 
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @param threads
+	 *            numero di thread da usare.
+	 * @param edges
+	 *            calcolare anche i punteggi degli archi?
+	 */
+	public BetweennessCentrality(EdgeWeightedDigraph InputGraph, int threads, boolean edges) {
+		this(InputGraph, threads, edges, null);
+	}
+
+	/**
+	 * Classe per la misura di betweeness centrality con checkpoint periodici. Se
+	 * il file del checkpoint esiste gia' il calcolo riparte da li'; a calcolo
+	 * terminato il file viene cancellato.
+	 * 
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @param threads
+	 *            numero di thread da usare.
+	 * @param edges
+	 *            calcolare anche i punteggi degli archi?
+	 * @param checkpoint
+	 *            checkpoint da scrivere e da cui riprendere, o null.
+	 */
+	public BetweennessCentrality(EdgeWeightedDigraph InputGraph, int threads, boolean edges,
+			BetweennessCheckpoint checkpoint) {
+		this(InputGraph, threads, edges, checkpoint, null);
+	}
+
+	/**
+	 * Come BetweennessCentrality(InputGraph, threads, edges, checkpoint), con i
+	 * potenziali di Johnson letti e salvati in una cache su disco.
+	 * 
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @param threads
+	 *            numero di thread da usare.
+	 * @param edges
+	 *            calcolare anche i punteggi degli archi?
+	 * @param checkpoint
+	 *            checkpoint da scrivere e da cui riprendere, o null.
+	 * @param cache
+	 *            cache dei potenziali, o null.
+	 */
+	public BetweennessCentrality(EdgeWeightedDigraph InputGraph, int threads, boolean edges,
+			BetweennessCheckpoint checkpoint, PotentialsCache cache) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive");
+		this.scores = new double[InputGraph.V()];
+		if (edges)
+			this.edgeScores = new double[InputGraph.E()];
+		this.unweighted = InputGraph.uniformWeight() > 0;
+		if (this.unweighted) {
 			/*
-			 * Applico Dijkstra per ogni coppia di vertici in G.
+			 * Pesi uniformi: non serve ripesare.
 			 */
-			Stopwatch DijkstraAllPairsSW = new Stopwatch();
-			DijkstraAllPairsSP dsp = new DijkstraAllPairsSP(this.G);
+			System.out.println("Pesi uniformi: visita in ampiezza.");
+			this.G = new ReweightedDigraph(InputGraph, null);
+		} else
+			this.G = johnson(InputGraph, threads, cache);
+		if (this.G != null) {
 			/*
-			 * Recupero i percorsi minimi da ogni nodo source. duplicatePaths.get(i) ritorna
-			 * un ArrayList<ArrayList<Integer>> che rappresenta tutti gli shortest part che
-			 * partono dal vertice i.
+			 * Per ogni sorgente: una visita di Brandes e l'accumulo delle dipendenze.
 			 */
-			for (DijkstraSP singleSourceDij : dsp.getAll())
-				this.shortestPaths.put(singleSourceDij.sourceNode, singleSourceDij.getAllShortestPaths());
-			System.out.printf("DijkstraAllPairs completato in %f secondi.\n", DijkstraAllPairsSW.elapsedTime());
-			Stopwatch JohnsonSW = new Stopwatch();
-			for (int s = 0; s < V; s++) {
-				for (int t = 0; t < V; t++) {
-					if (s != t) {
-						/*
-						 * Calcolo il numero di shortest paths tra s e t, e segno in containedVertices
-						 * quali vertici sono contenuti da questi percorsi.
-						 */
-						int _s = sigmaST(s, t);
-						if (_s != 0)
-							for (int v : this.containedVertices)
-								/*
-								 * Se ce ne sono, per ogni v nel path da s a t, calcola il relativo punteggio.
-								 */
-								this.scores[v] += (float) sigmaSTV(s, t, v) / _s;
-					}
-				}
-				this.sigmaSTV.get(s).clear();
-			}
-			System.out.printf("Johnson completato in %f secondi.\n", JohnsonSW.elapsedTime());
+			Stopwatch BrandesSW = new Stopwatch();
+			int V = this.G.V();
+			int[] sources = new int[V];
+			for (int s = 0; s < V; s++)
+				sources[s] = s;
+			brandes(sources, threads, checkpoint);
+			System.out.printf("Brandes completato in %f secondi.\n", BrandesSW.elapsedTime());
 		}
 	}
 
 	/**
-	 * Questo metodo conta il numero di shortest paths tra s e t. Inoltre, memorizza
-	 * i vertici incontrati (diversi da s e t) in tempV
+	 * Betweenness centrality approssimata. Il numero di campioni e' ricavato da
+	 * epsilon e delta; la casualita' passa da StdRandom inizializzato con seed,
+	 * quindi esecuzioni con lo stesso seed danno gli stessi punteggi.
 	 * 
-	 * @param s
-	 *            vertice di partenza
-	 * @param t
-	 *            vertice di arrivo
-	 * @return il numero di shortest paths tra s e t.
-	 */
-	public int sigmaST(int s, int t) {
-		this.containedVertices.clear();
-		int counter = 0;
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @param epsilon
+	 *            errore massimo sui punteggi normalizzati, in (0, 1).
+	 * @param delta
+	 *            probabilita' di superare l'errore, in (0, 1).
+	 * @param seed
+	 *            seme per StdRandom.
+	 */
+	public BetweennessCentrality(EdgeWeightedDigraph InputGraph, double epsilon, double delta, long seed) {
+		this(InputGraph, Sampling.PATHS, epsilon, delta, seed);
+	}
+
+	/**
+	 * Betweenness centrality approssimata con la strategia di campionamento
+	 * indicata.
+	 * 
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @param sampling
+	 *            strategia di campionamento.
+	 * @param epsilon
+	 *            errore massimo sui punteggi normalizzati, in (0, 1).
+	 * @param delta
+	 *            probabilita' di superare l'errore, in (0, 1).
+	 * @param seed
+	 *            seme per StdRandom.
+	 */
+	public BetweennessCentrality(EdgeWeightedDigraph InputGraph, Sampling sampling, double epsilon, double delta,
+			long seed) {
+		if (!(epsilon > 0 && epsilon < 1))
+			throw new IllegalArgumentException("epsilon must be between 0 and 1");
+		if (!(delta > 0 && delta < 1))
+			throw new IllegalArgumentException("delta must be between 0 and 1");
+		this.scores = new double[InputGraph.V()];
+		this.G = johnson(InputGraph);
+		if (this.G != null) {
+			Stopwatch SamplingSW = new Stopwatch();
+			if (sampling == Sampling.ADAPTIVE)
+				adaptiveSample(epsilon, delta, seed);
+			else
+				sample(epsilon, delta, seed);
+			System.out.printf("Campionamento (%d campioni) completato in %f secondi.\n", this.samples,
+					SamplingSW.elapsedTime());
+		}
+	}
+
+	/**
+	 * Ripesaggio di Johnson di InputGraph, senza copiarlo ne' modificarlo.
+	 * 
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @return la vista ripesata, null se il grafo contiene un ciclo negativo.
+	 */
+	static ReweightedDigraph johnson(EdgeWeightedDigraph InputGraph) {
+		return johnson(InputGraph, 1);
+	}
+
+	/**
+	 * Come johnson(InputGraph), calcolando i potenziali con threads thread.
+	 */
+	static ReweightedDigraph johnson(EdgeWeightedDigraph InputGraph, int threads) {
+		return johnson(InputGraph, threads, null);
+	}
+
+	/**
+	 * Come johnson(InputGraph, threads), con i potenziali in cache.
+	 */
+	static ReweightedDigraph johnson(EdgeWeightedDigraph InputGraph, int threads, PotentialsCache cache) {
+		Johnson johnson = new Johnson(InputGraph, threads, cache);
+		if (johnson.hasNegativeCycle()) {
+			System.out.println("Rilevato ciclo negativo!");
+			for (DirectedEdge e : johnson.negativeCycle())
+				StdOut.println(e);
+			return null;
+		}
+		return johnson.graph();
+	}
+
+	/**
+	 * Campiona le coppie (s, t) e accumula in scores i vertici interni dei percorsi
+	 * estratti, riportati alla scala dei punteggi esatti.
+	 * 
+	 * @param epsilon
+	 *            errore massimo sui punteggi normalizzati
+	 * @param delta
+	 *            probabilita' di superare l'errore
+	 * @param seed
+	 *            seme per StdRandom
+	 */
+	private void sample(double epsilon, double delta, long seed) {
+		int n = this.G.V();
+		if (n < 2)
+			return;
 		/*
-		 * Per ogni path che parte da s: se t  l'ultimo nodo, aumenta il contatore e
-		 * segnati i vertici coinvolti (quelli diversi da s e t).
+		 * Il vertex-diameter (vertici sul piu' lungo shortest path) e' al massimo n.
 		 */
-		for (ArrayList<Integer> path : this.shortestPaths.get(s))
-			if (path.get(path.size() - 1) == t) {
-				counter++;
-				for (int i = 1; i < path.size() - 1; i++) {
-					int v = path.get(i);
-					this.containedVertices.add(v);
-					HashMap<Integer, MyInteger> st = this.sigmaSTV.get(s).get(t);
-					if (st == null) {
-						this.sigmaSTV.get(s).put(t, new HashMap<Integer, MyInteger>());
-						this.sigmaSTV.get(s).get(t).put(v, new MyInteger());
-					} else {
-						MyInteger stv = st.get(v);
-						if (stv == null)
-							st.put(v, new MyInteger());
-						else
-							stv.inc();
+		int diameter = n;
+		double log2 = Math.floor(Math.log(Math.max(diameter - 2, 1)) / Math.log(2));
+		this.samples = (int) Math.ceil(VC_CONSTANT / (epsilon * epsilon) * (log2 + 1 + Math.log(1 / delta)));
+		double pairs = (double) n * (n - 1);
+		double weight = pairs / this.samples;
+		StdRandom.setSeed(seed);
+		BrandesSP bsp = new BrandesSP(this.G.V());
+		for (int i = 0; i < this.samples; i++) {
+			int s = StdRandom.uniform(n);
+			int t = StdRandom.uniform(n - 1);
+			if (t >= s)
+				t++;
+			bsp.run(this.G, s);
+			bsp.samplePath(this.G, t, this.scores, weight);
+		}
+	}
+
+	/**
+	 * Esegue Brandes dalle sorgenti indicate e somma le dipendenze in scores.
+	 * Ogni thread usa i propri array di lavoro (un BrandesSP) e prende i blocchi
+	 * di sorgenti da un contatore condiviso; ogni blocco ha il proprio array dei
+	 * punteggi (e, se richiesti, degli archi). I blocchi finiti vengono sommati
+	 * appena tutti quelli precedenti sono stati sommati, cosi' in memoria restano
+	 * solo i blocchi arrivati in anticipo: un thread non inizia un blocco che
+	 * dista WINDOW * threads o piu' dal primo non sommato, ma aspetta che la
+	 * somma avanzi. Il checkpoint salva sia i blocchi sommati sia quelli in
+	 * attesa, e viene scritto fuori dal lock.
+	 * 
+	 * @param sources
+	 *            sorgenti da visitare
+	 * @param threads
+	 *            numero di thread da usare
+	 * @param checkpoint
+	 *            checkpoint da scrivere e da cui riprendere, o null
+	 */
+	private void brandes(int[] sources, int threads, BetweennessCheckpoint checkpoint) {
+		int V = this.G.V(), E = this.G.E();
+		int blocks = Math.max(1, Math.min(BLOCKS, sources.length));
+		double[][] partial = new double[blocks][];
+		double[][] partialEdges = new double[blocks][];
+		int[] offsets = this.G.edgeOffsets();
+		/*
+		 * merged[0] = numero di blocchi gia' sommati in scores.
+		 */
+		int[] merged = new int[1];
+		/*
+		 * failed[0] = un thread e' terminato con un'eccezione: chi aspetta che la
+		 * somma avanzi non deve restare bloccato.
+		 */
+		boolean[] failed = new boolean[1];
+		int window = WINDOW * threads;
+		long fingerprint = checkpoint == null ? 0 : PotentialsCache.fingerprint(this.G.graph());
+		if (checkpoint != null)
+			merged[0] = checkpoint.load(fingerprint, V, E, blocks, this.scores, this.edgeScores, partial,
+					partialEdges);
+		/*
+		 * Blocchi gia' completati secondo il checkpoint, da saltare.
+		 */
+		boolean[] done = new boolean[blocks];
+		for (int b = 0; b < blocks; b++)
+			done[b] = b < merged[0] || partial[b] != null;
+		AtomicInteger next = new AtomicInteger(merged[0]);
+		Runnable worker = () -> {
+			try {
+				work(sources, blocks, next, done, merged, failed, window, partial, partialEdges, offsets, checkpoint,
+						fingerprint);
+			} catch (RuntimeException | Error e) {
+				synchronized (merged) {
+					failed[0] = true;
+					merged.notifyAll();
+				}
+				throw e;
+			}
+		};
+		if (threads == 1)
+			worker.run();
+		else {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			ArrayList<Future<?>> futures = new ArrayList<>(threads);
+			for (int t = 0; t < threads; t++)
+				futures.add(executor.submit(worker));
+			try {
+				for (Future<?> f : futures)
+					f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while computing betweenness", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new IllegalStateException(e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		if (checkpoint != null)
+			checkpoint.delete();
+	}
+
+	/**
+	 * Ciclo di un thread di brandes(sources, threads, checkpoint): prende i
+	 * blocchi da next, li calcola e somma in ordine quelli finiti.
+	 */
+	private void work(int[] sources, int blocks, AtomicInteger next, boolean[] done, int[] merged, boolean[] failed,
+			int window, double[][] partial, double[][] partialEdges, int[] offsets, BetweennessCheckpoint checkpoint,
+			long fingerprint) {
+		int V = this.G.V(), E = this.G.E();
+		BrandesVisit bsp = this.unweighted ? new BrandesBFS(V) : new BrandesSP(V);
+		for (int b = next.getAndIncrement(); b < blocks; b = next.getAndIncrement()) {
+			if (done[b])
+				continue;
+			synchronized (merged) {
+				while (b >= merged[0] + window && !failed[0])
+					try {
+						merged.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException("Interrupted while computing betweenness", e);
 					}
+				if (failed[0])
+					return;
+			}
+			double[] blockScores = new double[V];
+			double[] blockEdges = this.edgeScores == null ? null : new double[this.edgeScores.length];
+			int lo = (int) ((long) sources.length * b / blocks);
+			int hi = (int) ((long) sources.length * (b + 1) / blocks);
+			for (int i = lo; i < hi; i++) {
+				bsp.run(this.G, sources[i]);
+				bsp.accumulate(this.G, blockScores, offsets, blockEdges);
+			}
+			BetweennessCheckpoint.State state = null;
+			synchronized (merged) {
+				partial[b] = blockScores;
+				partialEdges[b] = blockEdges;
+				/*
+				 * Sommo i blocchi sempre nello stesso ordine.
+				 */
+				while (merged[0] < blocks && partial[merged[0]] != null) {
+					int m = merged[0];
+					for (int v = 0; v < V; v++)
+						this.scores[v] += partial[m][v];
+					if (this.edgeScores != null)
+						for (int i = 0; i < this.edgeScores.length; i++)
+							this.edgeScores[i] += partialEdges[m][i];
+					partial[m] = null;
+					partialEdges[m] = null;
+					merged[0]++;
+					merged.notifyAll();
 				}
+				if (checkpoint != null && merged[0] < blocks && checkpoint.completed(hi - lo))
+					state = checkpoint.state(fingerprint, V, E, blocks, merged[0], this.scores,
+							this.edgeScores, partial, partialEdges);
 			}
-		return counter;
+			if (state != null)
+				checkpoint.save(state);
+		}
 	}
 
 	/**
-	 * Questo metodo ritorna il numero di shortest paths tra s e t, passanti per v.
+	 * Campionamento adattivo: estrae coppie (s, t) e uno shortest path per coppia
+	 * finche' tutti gli intervalli di confidenza sono entro epsilon, o fino al
+	 * numero massimo di campioni dato dal bound sulla VC-dimension.
 	 * 
-	 * @param s
-	 *            vertice di partenza
-	 * @param t
-	 *            vertice di arrivo
-	 * @param v
+	 * @param epsilon
+	 *            errore massimo sui punteggi normalizzati
+	 * @param delta
+	 *            probabilita' di superare l'errore
+	 * @param seed
+	 *            seme per StdRandom
+	 */
+	private void adaptiveSample(double epsilon, double delta, long seed) {
+		int n = this.G.V();
+		if (n < 2)
+			return;
+		/*
+		 * Meta' di delta va al bound sul numero massimo di campioni omega, l'altra
+		 * meta' e' divisa tra i 2n intervalli (inferiore e superiore di ogni vertice).
+		 */
+		int diameter = n;
+		double log2 = Math.floor(Math.log(Math.max(diameter - 2, 1)) / Math.log(2));
+		double omega = Math.ceil(VC_CONSTANT / (epsilon * epsilon) * (log2 + 1 + Math.log(2 / delta)));
+		double logDelta = Math.log(4.0 * n / delta);
+		StdRandom.setSeed(seed);
+		BidirectionalSP bsp = new BidirectionalSP(this.G.V());
+		int[] path = new int[this.G.V()];
+		int tau = 0, nextCheck = FIRST_CHECK;
+		while (tau < omega) {
+			int s = StdRandom.uniform(n);
+			int t = StdRandom.uniform(n - 1);
+			if (t >= s)
+				t++;
+			bsp.run(this.G, s, t);
+			int length = bsp.samplePath(this.G, path);
+			for (int i = 1; i < length - 1; i++)
+				this.scores[path[i]]++;
+			tau++;
+			if (tau >= nextCheck) {
+				if (converged(tau, omega, logDelta, epsilon))
+					break;
+				nextCheck = Math.max(tau + 1, (int) (tau * 1.1));
+			}
+		}
+		this.samples = tau;
+		double weight = (double) n * (n - 1) / tau;
+		for (int v = 0; v < n; v++)
+			this.scores[v] *= weight;
+	}
+
+	/**
+	 * Controlla se, dopo tau campioni, gli intervalli di confidenza di KADABRA di
+	 * tutti i vertici sono entro epsilon. In scores ci sono ancora i conteggi.
 	 * 
-	 * @return il numero di shortest paths tra s e t, passanti per v.
+	 * @param tau
+	 *            campioni estratti
+	 * @param omega
+	 *            numero massimo di campioni
+	 * @param logDelta
+	 *            log(1 / delta_v), uguale per tutti i vertici
+	 * @param epsilon
+	 *            errore massimo
+	 * @return true se si puo' fermare il campionamento.
 	 */
-	public int sigmaSTV(int s, int t, int v) {
-		return this.sigmaSTV.get(s).get(t).get(v).value;
+	private boolean converged(int tau, double omega, double logDelta, double epsilon) {
+		double ratio = omega / tau;
+		for (int v = 0; v < this.G.V(); v++) {
+			double b = this.scores[v] / tau;
+			double lower = logDelta / tau
+					* (1.0 / 3 - ratio + Math.sqrt((1.0 / 3 - ratio) * (1.0 / 3 - ratio) + 2 * b * omega / logDelta));
+			double upper = logDelta / tau
+					* (1.0 / 3 + ratio + Math.sqrt((1.0 / 3 + ratio) * (1.0 / 3 + ratio) + 2 * b * omega / logDelta));
+			if (lower >= epsilon || upper >= epsilon)
+				return false;
+		}
+		return true;
 	}
 
 	public double[] getScores() {
 		return scores;
 	}
 
+	/**
+	 * Punteggi degli archi: getEdgeScores()[i] e' il punteggio dell'arco
+	 * InputGraph.edgesAsArray().get(i).
+	 * 
+	 * @return i punteggi degli archi, null se non richiesti.
+	 */
+	public double[] getEdgeScores() {
+		return edgeScores;
+	}
+
+	/**
+	 * Numero di campioni usati per l'approssimazione.
+	 * 
+	 * @return i campioni usati, 0 se i punteggi sono esatti.
+	 */
+	public int getSamples() {
+		return samples;
+	}
+
 	public static void main(String[] args) {
 		/*
 		 * Leggo grafo da "graph.txt" e lo passo al costruttore della classe.
 		 */
 		In file = new In("graph.txt");
 		EdgeWeightedDigraph G = new EdgeWeightedDigraph(file);
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
 		Stopwatch sw = new Stopwatch();
-		BetweennessCentrality bc = new BetweennessCentrality(G);
+		BetweennessCentrality bc = new BetweennessCentrality(G, threads);
 		double time = sw.elapsedTime();
 		/*
 		 * Ottengo i punteggi, li normalizzo e li stampo.
@@ -0,0 +1,233 @@
+package progetto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Checkpoint su file per le esecuzioni lunghe di BetweennessCentrality.
+ *
+ * BetweennessCentrality somma i blocchi di sorgenti sempre in ordine: i primi
+ * merged blocchi sono gia' sommati nei punteggi, mentre i blocchi finiti in
+ * anticipo aspettano con i propri punteggi parziali. Il file contiene
+ * l'impronta del grafo (PotentialsCache.fingerprint: estremi e pesi di tutti
+ * gli archi), il numero di blocchi, merged, i punteggi sommati e, per ogni
+ * blocco finito in anticipo, il suo indice e i suoi punteggi. Ripartendo da un
+ * checkpoint si saltano tutti i blocchi finiti e il risultato e' identico bit
+ * per bit a quello di un'esecuzione senza interruzioni.
+ *
+ * Il file viene scritto al massimo una volta ogni everySources sorgenti o ogni
+ * everySeconds secondi (la prima condizione che si verifica), contando ogni
+ * blocco appena finisce e non quando viene sommato. La scrittura avviene fuori
+ * dal lock dei blocchi, prima su un file temporaneo che poi viene rinominato:
+ * se il programma si interrompe durante la scrittura, il checkpoint precedente
+ * resta intatto. Se la scrittura fallisce viene solo stampato un avviso e il
+ * calcolo prosegue.
+ */
+public class BetweennessCheckpoint {
+	private static final int MAGIC = 0x42435032;
+	private final File file;
+	private final int everySources;
+	private final double everySeconds;
+	/**
+	 * Sorgenti completate e tempo trascorso dall'ultima scrittura.
+	 */
+	private int sourcesSinceSave;
+	private Stopwatch sinceSave;
+	/**
+	 * Numero dell'ultimo stato preso e dell'ultimo scritto: uno stato piu' vecchio
+	 * di quello gia' su file non viene scritto.
+	 */
+	private long taken, written;
+	private final Object writeLock = new Object();
+
+	/**
+	 * Stato del calcolo da scrivere: blocchi sommati e blocchi finiti in
+	 * anticipo. I punteggi sommati sono una copia; quelli dei blocchi non vengono
+	 * piu' modificati dopo la fine del blocco e si possono condividere.
+	 */
+	static class State {
+		private long number;
+		private long fingerprint;
+		private int V, E, blocks, merged;
+		private double[] scores, edgeScores;
+		private double[][] partial, partialEdges;
+	}
+
+	/**
+	 * @param path
+	 *            file del checkpoint
+	 * @param everySources
+	 *            sorgenti minime tra due scritture
+	 * @param everySeconds
+	 *            secondi minimi tra due scritture
+	 */
+	public BetweennessCheckpoint(String path, int everySources, double everySeconds) {
+		if (everySources < 1)
+			throw new IllegalArgumentException("everySources must be positive");
+		if (!(everySeconds >= 0))
+			throw new IllegalArgumentException("everySeconds must be nonnegative");
+		this.file = new File(path);
+		this.everySources = everySources;
+		this.everySeconds = everySeconds;
+		this.sinceSave = new Stopwatch();
+	}
+
+	/**
+	 * Carica il checkpoint, se esiste: i punteggi sommati in scores ed edgeScores,
+	 * quelli dei blocchi finiti in anticipo in partial e partialEdges.
+	 *
+	 * @return il numero di blocchi gia' sommati, 0 se il file non esiste.
+	 * @throws IllegalArgumentException
+	 *             se il file non e' valido o e' di un altro grafo
+	 */
+	int load(long fingerprint, int V, int E, int blocks, double[] scores, double[] edgeScores, double[][] partial,
+			double[][] partialEdges) {
+		synchronized (writeLock) {
+			taken = written = 0;
+		}
+		sourcesSinceSave = 0;
+		sinceSave = new Stopwatch();
+		if (!file.exists())
+			return 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC)
+				throw new IllegalArgumentException(file + " is not a betweenness checkpoint");
+			if (in.readLong() != fingerprint || in.readInt() != V || in.readInt() != E || in.readInt() != blocks)
+				throw new IllegalArgumentException(file + " was written for a different graph");
+			int merged = in.readInt();
+			int edges = in.readInt();
+			if (edges != (edgeScores == null ? -1 : edgeScores.length))
+				throw new IllegalArgumentException(file + " does not match the requested edge scores");
+			readScores(in, scores, edgeScores);
+			int early = in.readInt();
+			for (int k = 0; k < early; k++) {
+				int b = in.readInt();
+				if (b <= merged || b >= blocks || partial[b] != null)
+					throw new IllegalArgumentException(file + " is not a betweenness checkpoint");
+				partial[b] = new double[V];
+				partialEdges[b] = edgeScores == null ? null : new double[edges];
+				readScores(in, partial[b], partialEdges[b]);
+			}
+			System.out.printf("Ripreso il checkpoint %s: %d blocchi su %d completati.\n", file, merged + early,
+					blocks);
+			return merged;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Could not read " + file, e);
+		}
+	}
+
+	private static void readScores(DataInputStream in, double[] scores, double[] edgeScores) throws IOException {
+		for (int v = 0; v < scores.length; v++)
+			scores[v] = in.readDouble();
+		if (edgeScores != null)
+			for (int i = 0; i < edgeScores.length; i++)
+				edgeScores[i] = in.readDouble();
+	}
+
+	/**
+	 * Registra che e' finito un blocco di sources sorgenti. Va chiamato sotto il
+	 * lock dei blocchi, ed e' O(1).
+	 *
+	 * @return true se e' passato abbastanza tempo o lavoro dall'ultima scrittura:
+	 *         il chiamante deve prendere lo stato con state e scriverlo con save
+	 *         dopo aver lasciato il lock.
+	 */
+	boolean completed(int sources) {
+		sourcesSinceSave += sources;
+		if (sourcesSinceSave < everySources && sinceSave.elapsedTime() < everySeconds)
+			return false;
+		sourcesSinceSave = 0;
+		sinceSave = new Stopwatch();
+		return true;
+	}
+
+	/**
+	 * Stato corrente, da prendere sotto il lock dei blocchi: copia i punteggi
+	 * sommati (O(V + E)) e i riferimenti ai blocchi finiti in anticipo.
+	 */
+	State state(long fingerprint, int V, int E, int blocks, int merged, double[] scores, double[] edgeScores,
+			double[][] partial, double[][] partialEdges) {
+		State state = new State();
+		state.number = ++taken;
+		state.fingerprint = fingerprint;
+		state.V = V;
+		state.E = E;
+		state.blocks = blocks;
+		state.merged = merged;
+		state.scores = scores.clone();
+		state.edgeScores = edgeScores == null ? null : edgeScores.clone();
+		state.partial = partial.clone();
+		state.partialEdges = partialEdges.clone();
+		return state;
+	}
+
+	/**
+	 * Scrive lo stato, se non ne e' gia' stato scritto uno piu' recente. Blocca
+	 * solo i thread che stanno scrivendo un checkpoint. Un errore di scrittura
+	 * non interrompe il calcolo: si stampa un avviso, il checkpoint precedente
+	 * resta valido e si riprova con lo stato successivo.
+	 */
+	void save(State state) {
+		synchronized (writeLock) {
+			if (state.number <= written)
+				return;
+			File tmp = new File(file.getPath() + ".tmp");
+			try {
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+					out.writeInt(MAGIC);
+					out.writeLong(state.fingerprint);
+					out.writeInt(state.V);
+					out.writeInt(state.E);
+					out.writeInt(state.blocks);
+					out.writeInt(state.merged);
+					out.writeInt(state.edgeScores == null ? -1 : state.edgeScores.length);
+					writeScores(out, state.scores, state.edgeScores);
+					int early = 0;
+					for (int b = state.merged; b < state.blocks; b++)
+						if (state.partial[b] != null)
+							early++;
+					out.writeInt(early);
+					for (int b = state.merged; b < state.blocks; b++)
+						if (state.partial[b] != null) {
+							out.writeInt(b);
+							writeScores(out, state.partial[b], state.partialEdges[b]);
+						}
+				}
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				tmp.delete();
+				System.out.printf("Checkpoint %s non salvato: %s.\n", file, e);
+				return;
+			}
+			written = state.number;
+		}
+	}
+
+	private static void writeScores(DataOutputStream out, double[] scores, double[] edgeScores) throws IOException {
+		for (double d : scores)
+			out.writeDouble(d);
+		if (edgeScores != null)
+			for (double d : edgeScores)
+				out.writeDouble(d);
+	}
+
+	/**
+	 * Cancella il checkpoint a calcolo terminato; uno stato preso prima e non
+	 * ancora scritto non verra' piu' scritto.
+	 */
+	void delete() {
+		synchronized (writeLock) {
+			written = Long.MAX_VALUE;
+			file.delete();
+		}
+	}
+}
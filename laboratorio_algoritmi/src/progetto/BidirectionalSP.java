@@ -0,0 +1,598 @@
+package progetto;
+
+/**
+ * Ricerca bidirezionale bilanciata tra due vertici s e t: una visita di
+ * Dijkstra in avanti da s e una all'indietro da t (sugli archi entranti). Ad
+ * ogni passo si espande il lato che ha esaminato meno archi, un livello di
+ * distanza alla volta: i vertici visitati in avanti sono quindi sempre tutti e
+ * soli quelli con distF <= RF (e all'indietro distB <= RB).
+ *
+ * La ricerca si ferma quando RF + RB >= mu, con mu la migliore distanza s-t
+ * trovata. A quel punto ogni shortest path attraversa esattamente un arco u->x
+ * con u visitato in avanti e x no (ma visitato all'indietro), e il numero di
+ * shortest path passanti per quell'arco e' sigmaF[u] * sigmaB[x]. Questo
+ * permette di contare gli shortest path e di estrarne uno uniformemente senza
+ * visitare tutto il grafo.
+ *
+ * Come in BrandesSP e DijkstraSP gli shortest path sono i cammini semplici sul
+ * grafo dei predecessori. I vertici dopo l'arco di attraversamento hanno
+ * distanza da s maggiore di quelli visitati in avanti, quindi le due meta' di
+ * un cammino non hanno vertici in comune e il prodotto resta esatto. Se un
+ * ciclo di peso 0 impedisce l'ordinamento topologico di una visita, quel lato
+ * si conta (e si campiona) con SimplePaths.
+ *
+ * Se il conteggio non serve (run con countPaths false) la query restituisce
+ * solo la distanza e uno shortest path, ricostruito dagli alberi delle due
+ * visite attraverso l'arco (o il vertice) in cui si e' trovato mu.
+ *
+ * Gli array di lavoro sono riutilizzati tra una query e l'altra e vengono
+ * ripuliti solo sui vertici toccati.
+ */
+public class BidirectionalSP {
+	private IndexMinDoublePQ pqF, pqB;
+	/**
+	 * distF[v] = distanza da s a v, distB[v] = distanza da v a t.
+	 */
+	private double[] distF, distB;
+	/**
+	 * doneF[v] = v e' stato estratto dalla visita in avanti (idem doneB).
+	 */
+	private boolean[] doneF, doneB;
+	/**
+	 * sigmaF[v] = numero di shortest path da s a v, sigmaB[v] = da v a t.
+	 */
+	private double[] sigmaF, sigmaB;
+	/**
+	 * edgeToF[v] = ultimo arco del cammino minimo trovato da s a v, edgeToB[v] =
+	 * primo arco di quello da v a t.
+	 */
+	private DirectedEdge[] edgeToF, edgeToB;
+	/**
+	 * Dove e' stato trovato mu: l'arco tra le due visite, oppure (meet == null)
+	 * il vertice meetVertex raggiunto da entrambe.
+	 */
+	private DirectedEdge meet;
+	private int meetVertex;
+	/**
+	 * Predecessori non ancora contati, per l'ordinamento topologico.
+	 */
+	private int[] pendF, pendB;
+	/**
+	 * Vertici inseriti nelle due code (da ripulire alla query successiva).
+	 */
+	private int[] touchedF, touchedB;
+	private int nTouchedF, nTouchedB;
+	/**
+	 * Vertici estratti dalle due visite, in ordine di estrazione.
+	 */
+	private int[] settledF, settledB;
+	private int nSettledF, nSettledB;
+	/**
+	 * Di supporto all'ordinamento topologico.
+	 */
+	private int[] order;
+	/**
+	 * Il DAG in avanti (all'indietro) ha un ciclo di peso 0? In quel caso sigmaF
+	 * (sigmaB) viene da cyclesF (cyclesB), allocato alla prima query che ne ha
+	 * bisogno; cyclesB lavora sugli archi rovesciati, con sorgente t.
+	 */
+	private boolean cyclicF, cyclicB;
+	private SimplePaths cyclesF, cyclesB;
+	private int s, t;
+	/**
+	 * Distanza minima da s a t.
+	 */
+	private double mu;
+	/**
+	 * Numero di shortest path da s a t.
+	 */
+	private double sigma;
+	private boolean counted;
+	/**
+	 * Lunghezza minima dei cammini che passano per un arco di attraversamento:
+	 * e' mu, ma calcolata con le stesse somme di isCrossing, cosi' gli
+	 * arrotondamenti non fanno perdere cammini.
+	 */
+	private double crossing;
+
+	/**
+	 * Alloca gli array di lavoro per grafi con V vertici.
+	 *
+	 * @param V
+	 *            numero di vertici
+	 */
+	public BidirectionalSP(int V) {
+		this.pqF = new IndexMinDoublePQ(V);
+		this.pqB = new IndexMinDoublePQ(V);
+		this.distF = new double[V];
+		this.distB = new double[V];
+		this.doneF = new boolean[V];
+		this.doneB = new boolean[V];
+		this.sigmaF = new double[V];
+		this.sigmaB = new double[V];
+		this.edgeToF = new DirectedEdge[V];
+		this.edgeToB = new DirectedEdge[V];
+		this.pendF = new int[V];
+		this.pendB = new int[V];
+		this.touchedF = new int[V];
+		this.touchedB = new int[V];
+		this.settledF = new int[V];
+		this.settledB = new int[V];
+		this.order = new int[V];
+		for (int v = 0; v < V; v++) {
+			this.distF[v] = Double.POSITIVE_INFINITY;
+			this.distB[v] = Double.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Calcola distanza e numero di shortest path da s a t. Gli archi di G devono
+	 * avere peso non negativo.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param s
+	 *            vertice di partenza
+	 * @param t
+	 *            vertice di arrivo
+	 */
+	public void run(ReweightedDigraph G, int s, int t) {
+		run(G, s, t, true);
+	}
+
+	/**
+	 * Distanza, uno shortest path e, se countPaths, numero di shortest path da s
+	 * a t su un grafo con pesi non negativi.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param s
+	 *            vertice di partenza
+	 * @param t
+	 *            vertice di arrivo
+	 * @param countPaths
+	 *            calcolare anche pathCount()?
+	 */
+	public void run(EdgeWeightedDigraph G, int s, int t, boolean countPaths) {
+		run(new ReweightedDigraph(G, null), s, t, countPaths);
+	}
+
+	/**
+	 * Come run(G, s, t); se countPaths e' false non calcola pathCount() e non si
+	 * puo' usare samplePath().
+	 */
+	public void run(ReweightedDigraph G, int s, int t, boolean countPaths) {
+		validateVertex(s);
+		validateVertex(t);
+		reset();
+		this.s = s;
+		this.t = t;
+		this.mu = Double.POSITIVE_INFINITY;
+		this.sigma = 0.0;
+		this.counted = countPaths;
+		this.meet = null;
+		this.meetVertex = -1;
+		edgeToF[s] = null;
+		edgeToB[t] = null;
+		distF[s] = 0.0;
+		touchedF[nTouchedF++] = s;
+		pqF.insert(s, 0.0);
+		distB[t] = 0.0;
+		touchedB[nTouchedB++] = t;
+		pqB.insert(t, 0.0);
+		double RF = Double.NEGATIVE_INFINITY, RB = Double.NEGATIVE_INFINITY;
+		long workF = 0, workB = 0;
+		while (true) {
+			boolean exhaustedF = pqF.isEmpty(), exhaustedB = pqB.isEmpty();
+			if (mu == Double.POSITIVE_INFINITY) {
+				/*
+				 * Una delle due visite ha raggiunto tutto cio' che poteva senza incontrare
+				 * l'altra: t non e' raggiungibile da s.
+				 */
+				if (exhaustedF || exhaustedB)
+					return;
+			} else if (exhaustedF || exhaustedB || RF + RB >= mu)
+				break;
+			if (exhaustedB || (!exhaustedF && workF <= workB)) {
+				RF = pqF.minKey();
+				while (!pqF.isEmpty() && pqF.minKey() == RF)
+					workF += settleForward(G, pqF.delMin());
+			} else {
+				RB = pqB.minKey();
+				while (!pqB.isEmpty() && pqB.minKey() == RB)
+					workB += settleBackward(G, pqB.delMin());
+			}
+		}
+		if (!countPaths)
+			return;
+		countForward(G);
+		countBackward(G);
+		if (doneF[t])
+			sigma = sigmaF[t];
+		else if (doneB[s])
+			sigma = sigmaB[s];
+		else {
+			crossing = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < nSettledF; i++)
+				for (DirectedEdge e : G.adj(settledF[i]))
+					if (crosses(e))
+						crossing = Math.min(crossing, distF[e.from()] + G.weight(e) + distB[e.to()]);
+			for (int i = 0; i < nSettledF; i++)
+				for (DirectedEdge e : G.adj(settledF[i]))
+					if (isCrossing(G, e))
+						sigma += sigmaF[e.from()] * sigmaB[e.to()];
+		}
+	}
+
+	/**
+	 * Estrae v dalla visita in avanti e rilassa i suoi archi uscenti.
+	 *
+	 * @return il numero di archi esaminati.
+	 */
+	private int settleForward(ReweightedDigraph G, int v) {
+		doneF[v] = true;
+		settledF[nSettledF++] = v;
+		if (v == t && distF[v] < mu) {
+			mu = distF[v];
+			meet = null;
+			meetVertex = t;
+		}
+		int work = 0;
+		for (DirectedEdge e : G.adj(v)) {
+			if (G.weight(e) < 0)
+				throw new IllegalArgumentException("edge " + e + " has negative weight");
+			work++;
+			int w = e.to();
+			if (doneB[w] && distF[v] + G.weight(e) + distB[w] < mu) {
+				mu = distF[v] + G.weight(e) + distB[w];
+				meet = e;
+			}
+			if (distF[w] > distF[v] + G.weight(e)) {
+				if (distF[w] == Double.POSITIVE_INFINITY)
+					touchedF[nTouchedF++] = w;
+				distF[w] = distF[v] + G.weight(e);
+				edgeToF[w] = e;
+				if (pqF.contains(w))
+					pqF.decreaseKey(w, distF[w]);
+				else
+					pqF.insert(w, distF[w]);
+			}
+		}
+		return work;
+	}
+
+	/**
+	 * Estrae v dalla visita all'indietro e rilassa i suoi archi entranti.
+	 *
+	 * @return il numero di archi esaminati.
+	 */
+	private int settleBackward(ReweightedDigraph G, int v) {
+		doneB[v] = true;
+		settledB[nSettledB++] = v;
+		if (v == s && distB[v] < mu) {
+			mu = distB[v];
+			meet = null;
+			meetVertex = s;
+		}
+		int work = 0;
+		for (DirectedEdge e : G.inAdj(v)) {
+			if (G.weight(e) < 0)
+				throw new IllegalArgumentException("edge " + e + " has negative weight");
+			work++;
+			int u = e.from();
+			if (doneF[u] && distF[u] + G.weight(e) + distB[v] < mu) {
+				mu = distF[u] + G.weight(e) + distB[v];
+				meet = e;
+			}
+			if (distB[u] > distB[v] + G.weight(e)) {
+				if (distB[u] == Double.POSITIVE_INFINITY)
+					touchedB[nTouchedB++] = u;
+				distB[u] = distB[v] + G.weight(e);
+				edgeToB[u] = e;
+				if (pqB.contains(u))
+					pqB.decreaseKey(u, distB[u]);
+				else
+					pqB.insert(u, distB[u]);
+			}
+		}
+		return work;
+	}
+
+	/**
+	 * Calcola sigmaF sui vertici visitati in avanti, in ordine topologico sul DAG
+	 * degli shortest path (Kahn). Se un ciclo di peso 0 lascia dei vertici con
+	 * pendF > 0 sigmaF si ricalcola con cyclesF.
+	 */
+	private void countForward(ReweightedDigraph G) {
+		for (int i = 0; i < nSettledF; i++)
+			for (DirectedEdge e : G.adj(settledF[i]))
+				if (onForwardDag(G, e))
+					pendF[e.to()]++;
+		int count = 0;
+		sigmaF[s] = 1.0;
+		order[count++] = s;
+		for (int head = 0; head < count; head++)
+			for (DirectedEdge e : G.adj(order[head]))
+				if (onForwardDag(G, e)) {
+					sigmaF[e.to()] += sigmaF[e.from()];
+					if (--pendF[e.to()] == 0)
+						order[count++] = e.to();
+				}
+		if (count == nSettledF)
+			return;
+		if (cyclesF == null)
+			cyclesF = new SimplePaths(distF.length);
+		cyclicF = true;
+		cyclesF.begin(s);
+		for (int i = 0; i < nSettledF; i++)
+			for (DirectedEdge e : G.adj(settledF[i]))
+				if (onForwardDag(G, e))
+					cyclesF.addArc(e.from(), e.to(), 0);
+		cyclesF.build();
+		for (int i = 0; i < nSettledF; i++)
+			sigmaF[settledF[i]] = cyclesF.sigma(settledF[i]);
+	}
+
+	/**
+	 * Come countForward, ma sulla visita all'indietro da t.
+	 */
+	private void countBackward(ReweightedDigraph G) {
+		for (int i = 0; i < nSettledB; i++)
+			for (DirectedEdge e : G.inAdj(settledB[i]))
+				if (onBackwardDag(G, e))
+					pendB[e.from()]++;
+		int count = 0;
+		sigmaB[t] = 1.0;
+		order[count++] = t;
+		for (int head = 0; head < count; head++)
+			for (DirectedEdge e : G.inAdj(order[head]))
+				if (onBackwardDag(G, e)) {
+					sigmaB[e.from()] += sigmaB[e.to()];
+					if (--pendB[e.from()] == 0)
+						order[count++] = e.from();
+				}
+		if (count == nSettledB)
+			return;
+		if (cyclesB == null)
+			cyclesB = new SimplePaths(distB.length);
+		cyclicB = true;
+		cyclesB.begin(t);
+		for (int i = 0; i < nSettledB; i++)
+			for (DirectedEdge e : G.inAdj(settledB[i]))
+				if (onBackwardDag(G, e))
+					cyclesB.addArc(e.to(), e.from(), 0);
+		cyclesB.build();
+		for (int i = 0; i < nSettledB; i++)
+			sigmaB[settledB[i]] = cyclesB.sigma(settledB[i]);
+	}
+
+	/**
+	 * L'arco e sta su uno shortest path da s, tra due vertici visitati in avanti?
+	 */
+	private boolean onForwardDag(ReweightedDigraph G, DirectedEdge e) {
+		int u = e.from(), w = e.to();
+		return u != w && w != s && doneF[u] && doneF[w] && distF[u] + G.weight(e) == distF[w];
+	}
+
+	/**
+	 * L'arco e sta su uno shortest path verso t, tra due vertici visitati
+	 * all'indietro?
+	 */
+	private boolean onBackwardDag(ReweightedDigraph G, DirectedEdge e) {
+		int u = e.from(), w = e.to();
+		return u != w && u != t && doneB[u] && doneB[w] && distB[w] + G.weight(e) == distB[u];
+	}
+
+	/**
+	 * L'arco e collega la visita in avanti a quella all'indietro lungo uno shortest
+	 * path da s a t?
+	 */
+	private boolean isCrossing(ReweightedDigraph G, DirectedEdge e) {
+		return crosses(e) && distF[e.from()] + G.weight(e) + distB[e.to()] == crossing;
+	}
+
+	/**
+	 * L'arco e va da un vertice visitato in avanti a uno visitato solo
+	 * all'indietro?
+	 */
+	private boolean crosses(DirectedEdge e) {
+		int u = e.from(), x = e.to();
+		return doneF[u] && !doneF[x] && doneB[x];
+	}
+
+	/**
+	 * Estrae uniformemente uno shortest path da s a t dell'ultima query, usando
+	 * StdRandom.
+	 *
+	 * @param G
+	 *            il grafo usato in run
+	 * @param path
+	 *            array di almeno V elementi in cui scrivere il percorso, da s a t
+	 * @return il numero di vertici del percorso, 0 se t non e' raggiungibile.
+	 */
+	public int samplePath(ReweightedDigraph G, int[] path) {
+		if (!counted)
+			throw new IllegalStateException("Shortest paths were not counted");
+		if (sigma == 0.0)
+			return 0;
+		int u, x;
+		if (doneF[t]) {
+			u = t;
+			x = -1;
+		} else if (doneB[s]) {
+			u = -1;
+			x = s;
+		} else {
+			/*
+			 * Scelgo l'arco di attraversamento con probabilita' proporzionale al numero di
+			 * shortest path che lo usano.
+			 */
+			double r = StdRandom.uniform() * sigma;
+			u = -1;
+			x = -1;
+			for (int i = 0; i < nSettledF && r >= 0; i++)
+				for (DirectedEdge e : G.adj(settledF[i]))
+					if (isCrossing(G, e)) {
+						u = e.from();
+						x = e.to();
+						r -= sigmaF[u] * sigmaB[x];
+						if (r < 0)
+							break;
+					}
+		}
+		/*
+		 * Da u risalgo fino a s (scrivendo il percorso al contrario), poi da x scendo
+		 * fino a t. Con un ciclo di peso 0 cyclesF scrive gia' il cammino da s a u,
+		 * mentre cyclesB scrive quello da t a x, da rovesciare.
+		 */
+		int n = 0;
+		if (cyclicF && u != -1)
+			n = cyclesF.samplePath(u, path, 0);
+		else {
+			for (int v = u; v != -1; v = v == s ? -1 : forwardPred(G, v))
+				path[n++] = v;
+			reverse(path, 0, n);
+		}
+		if (cyclicB && x != -1) {
+			int m = cyclesB.samplePath(x, path, n);
+			reverse(path, n, n + m);
+			n += m;
+		} else
+			for (int v = x; v != -1; v = v == t ? -1 : backwardSucc(G, v))
+				path[n++] = v;
+		return n;
+	}
+
+	private static void reverse(int[] a, int lo, int hi) {
+		for (int i = lo, j = hi - 1; i < j; i++, j--) {
+			int tmp = a[i];
+			a[i] = a[j];
+			a[j] = tmp;
+		}
+	}
+
+	/**
+	 * Predecessore di v sul DAG in avanti, scelto con probabilita' sigmaF[p] /
+	 * sigmaF[v].
+	 */
+	private int forwardPred(ReweightedDigraph G, int v) {
+		double r = StdRandom.uniform() * sigmaF[v];
+		int p = -1;
+		for (DirectedEdge e : G.inAdj(v))
+			if (onForwardDag(G, e)) {
+				p = e.from();
+				r -= sigmaF[p];
+				if (r < 0)
+					break;
+			}
+		return p;
+	}
+
+	/**
+	 * Successore di v sul DAG all'indietro, scelto con probabilita' sigmaB[w] /
+	 * sigmaB[v].
+	 */
+	private int backwardSucc(ReweightedDigraph G, int v) {
+		double r = StdRandom.uniform() * sigmaB[v];
+		int w = -1;
+		for (DirectedEdge e : G.adj(v))
+			if (onBackwardDag(G, e)) {
+				w = e.to();
+				r -= sigmaB[w];
+				if (r < 0)
+					break;
+			}
+		return w;
+	}
+
+	/**
+	 * Riporta gli array di lavoro allo stato iniziale, toccando solo i vertici
+	 * della query precedente.
+	 */
+	private void reset() {
+		pqF.clear();
+		pqB.clear();
+		for (int i = 0; i < nTouchedF; i++) {
+			int v = touchedF[i];
+			distF[v] = Double.POSITIVE_INFINITY;
+			doneF[v] = false;
+			sigmaF[v] = 0.0;
+			pendF[v] = 0;
+		}
+		for (int i = 0; i < nTouchedB; i++) {
+			int v = touchedB[i];
+			distB[v] = Double.POSITIVE_INFINITY;
+			doneB[v] = false;
+			sigmaB[v] = 0.0;
+			pendB[v] = 0;
+		}
+		nTouchedF = nTouchedB = 0;
+		nSettledF = nSettledB = 0;
+		cyclicF = cyclicB = false;
+	}
+
+	/**
+	 * Distanza minima da s a t dell'ultima query.
+	 */
+	public double distance() {
+		return mu;
+	}
+
+	/**
+	 * Uno shortest path da s a t dell'ultima query, o null se t non e'
+	 * raggiungibile.
+	 */
+	public Iterable<DirectedEdge> path() {
+		if (mu == Double.POSITIVE_INFINITY)
+			return null;
+		Stack<DirectedEdge> forward = new Stack<DirectedEdge>();
+		int u = meet != null ? meet.from() : meetVertex;
+		for (DirectedEdge e = edgeToF[u]; e != null; e = edgeToF[e.from()])
+			forward.push(e);
+		Queue<DirectedEdge> path = new Queue<DirectedEdge>();
+		for (DirectedEdge e : forward)
+			path.enqueue(e);
+		int x = u;
+		if (meet != null) {
+			path.enqueue(meet);
+			x = meet.to();
+		}
+		for (DirectedEdge e = edgeToB[x]; e != null; e = edgeToB[e.to()])
+			path.enqueue(e);
+		return path;
+	}
+
+	/**
+	 * Numero di shortest path da s a t dell'ultima query (cammini semplici, come
+	 * BrandesSP.sigma(t) e DijkstraSP.getSigma()), 0 se t non e' raggiungibile.
+	 *
+	 * @throws IllegalStateException
+	 *             se la query e' stata eseguita senza contare i cammini
+	 */
+	public double pathCount() {
+		if (!counted)
+			throw new IllegalStateException("Shortest paths were not counted");
+		return sigma;
+	}
+
+	/**
+	 * Numero di vertici estratti dalla visita in avanti nell'ultima query.
+	 */
+	public int settledForward() {
+		return nSettledF;
+	}
+
+	/**
+	 * Numero di vertici estratti dalla visita all'indietro nell'ultima query.
+	 */
+	public int settledBackward() {
+		return nSettledB;
+	}
+
+	// throw an IllegalArgumentException unless {@code 0 <= v < V}
+	private void validateVertex(int v) {
+		int V = distF.length;
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+	}
+}
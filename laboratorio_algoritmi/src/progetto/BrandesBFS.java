@@ -0,0 +1,158 @@
+package progetto;
+
+/**
+ * Visita di Brandes per grafi con tutti i pesi uguali e positivi: gli shortest
+ * path sono quelli con meno archi, quindi basta una visita in ampiezza con una
+ * coda di interi al posto di Bellman-Ford, ripesaggio e Dijkstra.
+ *
+ * La visita e' direction-optimizing (Beamer): ogni livello si espande
+ * top-down, scorrendo gli archi uscenti della frontiera, oppure bottom-up,
+ * scorrendo gli archi entranti (G.inAdj) dei vertici non ancora raggiunti. Per
+ * la betweenness ogni vertice deve sommare sigma di tutti i suoi genitori,
+ * quindi il bottom-up non puo' fermarsi al primo genitore trovato: conviene
+ * quando gli archi uscenti della frontiera (mF) sono piu' degli archi entranti
+ * nei vertici non raggiunti (mU). Sui grafi scale-free con diametro basso
+ * questo accade nei livelli centrali, dove la frontiera e' enorme.
+ *
+ * Gli array di lavoro sono allocati una sola volta e ripuliti solo sui vertici
+ * raggiunti dalla visita precedente.
+ */
+public class BrandesBFS implements BrandesVisit {
+	/**
+	 * dist[i] = numero di archi da source al vertice i-esimo, -1 se non
+	 * raggiunto.
+	 */
+	private int[] dist;
+	/**
+	 * sigma[i] = numero di shortest path da source al vertice i-esimo.
+	 */
+	private double[] sigma;
+	/**
+	 * delta[i] = dipendenza di source dal vertice i-esimo.
+	 */
+	private double[] delta;
+	/**
+	 * Coda della visita: alla fine contiene i vertici raggiunti in ordine di
+	 * distanza. Sono validi i primi count elementi.
+	 */
+	private int[] queue;
+	private int count;
+	private int sourceNode;
+	/**
+	 * Archi esaminati dalle visite, per confrontare le due direzioni.
+	 */
+	private long edgeChecks;
+
+	/**
+	 * Alloca gli array di lavoro per grafi con V vertici.
+	 *
+	 * @param V
+	 *            numero di vertici
+	 */
+	public BrandesBFS(int V) {
+		this.dist = new int[V];
+		this.sigma = new double[V];
+		this.delta = new double[V];
+		this.queue = new int[V];
+		for (int v = 0; v < V; v++)
+			this.dist[v] = -1;
+	}
+
+	public void run(ReweightedDigraph G, int s) {
+		for (int i = 0; i < count; i++) {
+			int v = queue[i];
+			dist[v] = -1;
+			sigma[v] = 0.0;
+			delta[v] = 0.0;
+		}
+		count = 0;
+		this.sourceNode = s;
+		dist[s] = 0;
+		sigma[s] = 1.0;
+		queue[count++] = s;
+		long mF = G.outdegree(s), mU = G.E() - G.indegree(s);
+		for (int level = 0, lo = 0; lo < count; level++) {
+			int hi = count;
+			if (mF > mU)
+				bottomUp(G, level);
+			else
+				topDown(G, lo, hi);
+			/*
+			 * Aggiorno gli archi uscenti della nuova frontiera e gli archi entranti nei
+			 * vertici ancora da raggiungere.
+			 */
+			mF = 0;
+			for (int i = hi; i < count; i++) {
+				mF += G.outdegree(queue[i]);
+				mU -= G.indegree(queue[i]);
+			}
+			lo = hi;
+		}
+	}
+
+	/**
+	 * Espande la frontiera queue[lo..hi) lungo gli archi uscenti.
+	 */
+	private void topDown(ReweightedDigraph G, int lo, int hi) {
+		for (int i = lo; i < hi; i++) {
+			int v = queue[i];
+			for (DirectedEdge e : G.adj(v)) {
+				edgeChecks++;
+				int w = e.to();
+				if (dist[w] < 0) {
+					dist[w] = dist[v] + 1;
+					queue[count++] = w;
+				}
+				if (dist[w] == dist[v] + 1)
+					sigma[w] += sigma[v];
+			}
+		}
+	}
+
+	/**
+	 * Ogni vertice non ancora raggiunto cerca, tra gli archi entranti, i genitori
+	 * a distanza level.
+	 */
+	private void bottomUp(ReweightedDigraph G, int level) {
+		for (int v = 0; v < G.V(); v++) {
+			if (dist[v] >= 0)
+				continue;
+			for (DirectedEdge e : G.inAdj(v)) {
+				edgeChecks++;
+				int u = e.from();
+				if (dist[u] == level)
+					sigma[v] += sigma[u];
+			}
+			if (sigma[v] > 0) {
+				dist[v] = level + 1;
+				queue[count++] = v;
+			}
+		}
+	}
+
+	/**
+	 * Numero di archi esaminati dalle visite finora.
+	 */
+	public long edgeChecks() {
+		return edgeChecks;
+	}
+
+	public void accumulate(ReweightedDigraph G, double[] scores, int[] offsets, double[] edgeScores) {
+		for (int i = count - 1; i >= 0; i--) {
+			int v = queue[i];
+			int index = edgeScores == null ? 0 : offsets[v];
+			for (DirectedEdge e : G.adj(v)) {
+				int w = e.to();
+				if (dist[w] == dist[v] + 1) {
+					double c = sigma[v] / sigma[w] * (1.0 + delta[w]);
+					delta[v] += c;
+					if (edgeScores != null)
+						edgeScores[index] += c;
+				}
+				index++;
+			}
+			if (v != sourceNode)
+				scores[v] += delta[v];
+		}
+	}
+}
@@ -0,0 +1,331 @@
+package progetto;
+
+/**
+ * Visita single-source per l'algoritmo di Brandes. Per un vertice di partenza
+ * calcola le distanze minime con Dijkstra, il numero di shortest path sigma[v]
+ * e, all'indietro, la dipendenza delta[v] di source da ogni vertice v.
+ *
+ * Il DAG dei predecessori non viene materializzato: l'arco v->w appartiene a
+ * uno shortest path se e solo se distTo[w] == distTo[v] + peso. I vertici
+ * vengono ordinati topologicamente su questo DAG (non solo per distanza),
+ * cosi' gli archi di peso 0 prodotti dal ripesaggio di Johnson sono gestiti
+ * correttamente.
+ *
+ * Gli shortest path sono i cammini semplici sul grafo dei predecessori, come
+ * in DijkstraSP.paths(): gli archi entranti in source e i cappi non ne fanno
+ * parte. Se un ciclo di peso 0 impedisce l'ordinamento topologico sigma,
+ * dipendenze e campionamento passano a SimplePaths.
+ *
+ * Gli array di lavoro sono allocati una sola volta e riutilizzati tra una
+ * sorgente e l'altra: la memoria di lavoro e' O(V).
+ */
+public class BrandesSP implements BrandesVisit {
+	private VertexPQ pq;
+	/**
+	 * distTo[i] = distanza minima da source al vertice i-esimo.
+	 */
+	private double[] distTo;
+	/**
+	 * sigma[i] = numero di shortest path (cammini semplici) da source al vertice
+ * i-esimo.
+	 */
+	private double[] sigma;
+	/**
+	 * delta[i] = dipendenza di source dal vertice i-esimo.
+	 */
+	private double[] delta;
+	/**
+	 * Numero di predecessori nel DAG non ancora visitati, per l'ordinamento
+	 * topologico.
+	 */
+	private int[] pending;
+	/**
+	 * Vertici raggiunti da source, in ordine di estrazione da Dijkstra. Sono
+	 * validi i primi reached elementi.
+	 */
+	private int[] settled;
+	private int reached;
+	/**
+	 * Vertici raggiunti da source, in ordine topologico sul DAG degli shortest
+	 * path. Sono validi i primi count elementi.
+	 */
+	private int[] order;
+	private int count;
+	/**
+	 * Nodo di partenza dell'ultima visita.
+	 */
+	private int sourceNode;
+	/**
+	 * Il grafo dei predecessori dell'ultima visita ha un ciclo di peso 0? In quel
+	 * caso i conti sono in cycles, allocato alla prima visita che ne ha bisogno
+	 * insieme a path, su cui samplePath scrive il cammino estratto.
+	 */
+	private boolean cyclic;
+	private SimplePaths cycles;
+	private int[] path;
+
+	/**
+	 * Alloca gli array di lavoro per grafi con V vertici.
+	 *
+	 * @param V
+	 *            numero di vertici
+	 */
+	public BrandesSP(int V) {
+		this(V, new IndexMinDoublePQ(V));
+	}
+
+	/**
+	 * Come BrandesSP(V), con la coda con priorita' pq per Dijkstra.
+	 *
+	 * @param V
+	 *            numero di vertici
+	 * @param pq
+	 *            coda vuota con indici da 0 a V - 1
+	 */
+	public BrandesSP(int V, VertexPQ pq) {
+		if (!pq.isEmpty())
+			throw new IllegalArgumentException("Priority queue must be empty");
+		this.pq = pq;
+		this.distTo = new double[V];
+		this.sigma = new double[V];
+		this.delta = new double[V];
+		this.pending = new int[V];
+		this.settled = new int[V];
+		this.order = new int[V];
+		for (int v = 0; v < V; v++)
+			this.distTo[v] = Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Calcola distanze, ordine topologico e sigma partendo da s. Gli archi di G
+	 * devono avere peso non negativo.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param s
+	 *            vertice di partenza
+	 */
+	public void run(ReweightedDigraph G, int s) {
+		reset();
+		this.sourceNode = s;
+		/*
+		 * Dijkstra: calcolo le distanze e mi segno i vertici raggiunti.
+		 */
+		distTo[s] = 0.0;
+		pq.insert(s, distTo[s]);
+		while (!pq.isEmpty()) {
+			int v = pq.delMin();
+			settled[reached++] = v;
+			for (DirectedEdge e : G.adj(v)) {
+				if (G.weight(e) < 0)
+					throw new IllegalArgumentException("edge " + e + " has negative weight");
+				int w = e.to();
+				if (distTo[w] > distTo[v] + G.weight(e)) {
+					distTo[w] = distTo[v] + G.weight(e);
+					if (pq.contains(w))
+						pq.decreaseKey(w, distTo[w]);
+					else
+						pq.insert(w, distTo[w]);
+				}
+			}
+		}
+		/*
+		 * Conto, per ogni vertice raggiunto, gli archi entranti che stanno su uno
+		 * shortest path.
+		 */
+		for (int i = 0; i < reached; i++) {
+			int v = settled[i];
+			for (DirectedEdge e : G.adj(v))
+				if (onDag(G, e))
+					pending[e.to()]++;
+		}
+		/*
+		 * Ordinamento topologico (Kahn) sul DAG e calcolo di sigma: quando un vertice
+		 * esce dalla coda tutti i suoi predecessori sono gia' stati contati. Se il
+		 * grafo contiene un ciclo di peso 0 i vertici sul ciclo non entrano mai in
+		 * order: sigma si ricalcola con SimplePaths.
+		 */
+		sigma[s] = 1.0;
+		order[count++] = s;
+		for (int head = 0; head < count; head++) {
+			int v = order[head];
+			for (DirectedEdge e : G.adj(v)) {
+				int w = e.to();
+				if (onDag(G, e)) {
+					sigma[w] += sigma[v];
+					if (--pending[w] == 0)
+						order[count++] = w;
+				}
+			}
+		}
+		if (count < reached)
+			countSimplePaths(G);
+	}
+
+	/**
+	 * Registra in cycles gli archi del grafo dei predecessori (con la loro
+	 * posizione in G.adj, per gli indici di edgeScores) e ne copia sigma.
+	 */
+	private void countSimplePaths(ReweightedDigraph G) {
+		if (cycles == null) {
+			cycles = new SimplePaths(distTo.length);
+			path = new int[distTo.length];
+		}
+		cyclic = true;
+		cycles.begin(sourceNode);
+		for (int i = 0; i < reached; i++) {
+			int v = settled[i], k = 0;
+			for (DirectedEdge e : G.adj(v)) {
+				if (onDag(G, e))
+					cycles.addArc(v, e.to(), k);
+				k++;
+			}
+		}
+		cycles.build();
+		for (int i = 0; i < reached; i++)
+			sigma[settled[i]] = cycles.sigma(settled[i]);
+	}
+
+	/**
+	 * Accumula all'indietro le dipendenze dell'ultima visita e le somma a scores.
+	 * Source non riceve punteggio.
+	 *
+	 * @param G
+	 *            il grafo usato in run
+	 * @param scores
+	 *            punteggi da aggiornare
+	 */
+	public void accumulate(ReweightedDigraph G, double[] scores) {
+		accumulate(G, scores, null, null);
+	}
+
+	/**
+	 * Come accumulate(G, scores), e nello stesso passaggio somma a edgeScores la
+	 * dipendenza di source da ogni arco del DAG.
+	 *
+	 * @param G
+	 *            il grafo usato in run
+	 * @param scores
+	 *            punteggi dei vertici da aggiornare
+	 * @param offsets
+	 *            G.edgeOffsets(), per l'indice degli archi
+	 * @param edgeScores
+	 *            punteggi degli archi da aggiornare, indicizzati come
+	 *            G.edgesAsArray(); null se non servono
+	 */
+	public void accumulate(ReweightedDigraph G, double[] scores, int[] offsets, double[] edgeScores) {
+		if (cyclic) {
+			cycles.accumulate(delta, offsets, edgeScores);
+			for (int i = 0; i < reached; i++)
+				if (settled[i] != sourceNode)
+					scores[settled[i]] += delta[settled[i]];
+			return;
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			int v = order[i];
+			int index = edgeScores == null ? 0 : offsets[v];
+			for (DirectedEdge e : G.adj(v)) {
+				int w = e.to();
+				if (onDag(G, e)) {
+					double c = sigma[v] / sigma[w] * (1.0 + delta[w]);
+					delta[v] += c;
+					if (edgeScores != null)
+						edgeScores[index] += c;
+				}
+				index++;
+			}
+			if (v != sourceNode)
+				scores[v] += delta[v];
+		}
+	}
+
+	/**
+	 * Estrae uniformemente uno degli shortest path da source a t dell'ultima
+	 * visita, risalendo il DAG da t: il predecessore u di v e' scelto con
+	 * probabilita' sigma[u] / sigma[v]. Somma weight ai vertici interni del
+	 * percorso. Se t non e' raggiungibile non fa nulla.
+	 *
+	 * @param G
+	 *            il grafo usato in run
+	 * @param t
+	 *            vertice di arrivo
+	 * @param scores
+	 *            punteggi da aggiornare
+	 * @param weight
+	 *            valore da sommare a ogni vertice interno
+	 */
+	public void samplePath(ReweightedDigraph G, int t, double[] scores, double weight) {
+		if (t == sourceNode || distTo[t] == Double.POSITIVE_INFINITY)
+			return;
+		if (cyclic) {
+			int length = cycles.samplePath(t, path, 0);
+			for (int i = 1; i < length - 1; i++)
+				scores[path[i]] += weight;
+			return;
+		}
+		int v = t;
+		while (v != sourceNode) {
+			double x = StdRandom.uniform() * sigma[v];
+			int u = -1;
+			for (DirectedEdge e : G.inAdj(v))
+				if (onDag(G, e)) {
+					u = e.from();
+					x -= sigma[u];
+					if (x < 0)
+						break;
+				}
+			v = u;
+			if (v != sourceNode)
+				scores[v] += weight;
+		}
+	}
+
+	/**
+	 * L'arco e sta sul DAG degli shortest path da source? I self-loop e gli archi
+	 * entranti in source non stanno mai su uno shortest path semplice.
+	 *
+	 * @param e
+	 *            l'arco da controllare
+	 * @return true se e e' un arco del DAG.
+	 */
+	private boolean onDag(ReweightedDigraph G, DirectedEdge e) {
+		int v = e.from(), w = e.to();
+		return v != w && w != sourceNode && distTo[w] == distTo[v] + G.weight(e);
+	}
+
+	/**
+	 * Riporta gli array di lavoro allo stato iniziale, toccando solo i vertici
+	 * raggiunti dalla visita precedente.
+	 */
+	private void reset() {
+		for (int i = 0; i < reached; i++) {
+			int v = settled[i];
+			distTo[v] = Double.POSITIVE_INFINITY;
+			sigma[v] = 0.0;
+			delta[v] = 0.0;
+			pending[v] = 0;
+		}
+		reached = 0;
+		count = 0;
+		cyclic = false;
+	}
+
+	public double distTo(int v) {
+		return distTo[v];
+	}
+
+	public double sigma(int v) {
+		return sigma[v];
+	}
+
+	/**
+	 * Numero di vertici raggiunti da source nell'ultima visita, source compreso.
+	 */
+	public int reached() {
+		return reached;
+	}
+
+	public int source() {
+		return sourceNode;
+	}
+}
@@ -0,0 +1,34 @@
+package progetto;
+
+/**
+ * Visita single-source per l'algoritmo di Brandes: calcola da una sorgente il
+ * numero di shortest path sigma e poi, all'indietro, le dipendenze. Le
+ * implementazioni riutilizzano i propri array di lavoro tra una sorgente e
+ * l'altra.
+ */
+public interface BrandesVisit {
+	/**
+	 * Calcola distanze e sigma partendo da s.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param s
+	 *            vertice di partenza
+	 */
+	void run(ReweightedDigraph G, int s);
+
+	/**
+	 * Accumula all'indietro le dipendenze dell'ultima visita e le somma a scores
+	 * e, se edgeScores non e' null, agli archi.
+	 *
+	 * @param G
+	 *            il grafo usato in run
+	 * @param scores
+	 *            punteggi dei vertici da aggiornare
+	 * @param offsets
+	 *            G.edgeOffsets(), per l'indice degli archi
+	 * @param edgeScores
+	 *            punteggi degli archi da aggiornare, o null
+	 */
+	void accumulate(ReweightedDigraph G, double[] scores, int[] offsets, double[] edgeScores);
+}
@@ -1,12 +1,62 @@
 package progetto;
 
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class DijkstraAllPairsSP {
 	private DijkstraSP[] all;
 
 	public DijkstraAllPairsSP(EdgeWeightedDigraph G) {
+		this(G, 1);
+	}
+
+	/**
+	 * Esegue Dijkstra da ogni vertice, distribuendo le sorgenti su piu' thread.
+	 * Ogni visita e' indipendente e scrive solo in all[s]; ogni thread riusa lo
+	 * stesso DijkstraWorkspace per tutte le sue sorgenti.
+	 * 
+	 * @param G
+	 *            il grafo
+	 * @param threads
+	 *            numero di thread da usare
+	 */
+	public DijkstraAllPairsSP(EdgeWeightedDigraph G, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive");
 		all = new DijkstraSP[G.V()];
-		for (int v = 0; v < G.V(); v++)
-			all[v] = new DijkstraSP(G, v);
+		if (threads == 1) {
+			DijkstraWorkspace ws = new DijkstraWorkspace(G.V());
+			for (int v = 0; v < G.V(); v++)
+				all[v] = new DijkstraSP(G, v, ws);
+			return;
+		}
+		AtomicInteger next = new AtomicInteger();
+		Runnable worker = () -> {
+			DijkstraWorkspace ws = new DijkstraWorkspace(G.V());
+			for (int v = next.getAndIncrement(); v < G.V(); v = next.getAndIncrement())
+				all[v] = new DijkstraSP(G, v, ws);
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<?>> futures = new ArrayList<>(threads);
+		for (int t = 0; t < threads; t++)
+			futures.add(executor.submit(worker));
+		try {
+			for (Future<?> f : futures)
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing shortest paths", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
 	}
 
 	public DijkstraSP[] getAll() {
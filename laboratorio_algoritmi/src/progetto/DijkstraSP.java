@@ -1,95 +1,406 @@
 package progetto;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * Classe per l'algoritmo di Dijkstra.
+ *
+ * Il risultato ha una voce per ogni vertice raggiunto da source, indicizzata
+ * dalla posizione del vertice in vertices: con un DijkstraWorkspace riusato, una
+ * sorgente che raggiunge n vertici su m archi costa O((n + m) log n) in tempo e
+ * O(n + m) in memoria, indipendentemente da V. Restano O(V) solo getSigma(),
+ * che crea l'array completo alla prima chiamata, e DijkstraSP(G, s) senza
+ * workspace, che ne alloca uno nuovo.
  */
 public class DijkstraSP {
-	private IndexMinPQ<Double> pq;
 	/**
-	 * distTo[i] = distanza minima per arrivare al vertice i-esimo.
+	 * Vertici raggiunti da source in ordine crescente: il vertice di indice i e'
+	 * vertices[i], e un vertice e' raggiunto se e solo se binarySearch lo trova.
 	 */
-	private double[] distTo;
+	private int[] vertices;
 	/**
-	 * prevEdges[i]  un ArrayList<Integer> che contiene tutti i possibili archi che
-	 * portano al nodo i-esimo in uno shortest path.
+	 * V del grafo, per validare i vertici.
 	 */
-	public ArrayList<Integer>[] prevEdges;
+	private final int V;
 	/**
-	 * Nodo di partenza
+	 * Indice di source in vertices.
 	 */
-	public int sourceNode;
+	private int source;
+	/**
+	 * DAG dei predecessori in formato CSR sugli indici: i predecessori del
+	 * vertice di indice i su uno shortest path, nell'ordine in cui sono stati
+	 * trovati, sono pred[predOffset[i]] ... pred[predOffset[i + 1] - 1]. source
+	 * non ha predecessori.
+	 */
+	private int[] predOffset, pred;
+	/**
+	 * sigma[i] = numero di shortest path da source al vertice di indice i, cioe'
+	 * di cammini generati da paths(vertices[i]): come in BrandesSP e
+	 * BidirectionalSP, i cammini che passano per un ciclo di peso 0 contano solo
+	 * se semplici.
+	 */
+	private double[] sigma;
 	/**
-	 * Di supporto al metodo getShortestPaths.
+	 * sigma per vertice (0 se non raggiunto), creato da getSigma().
+	 */
+	private double[] sigmaByVertex;
+	/**
+	 * distTo[i] = lunghezza dello shortest path da source al vertice di indice i.
+	 */
+	private double[] distTo;
+	/**
+	 * Nodo di partenza
 	 */
-	ArrayList<ArrayList<Integer>> tempPathList;
+	public int sourceNode;
 	/**
-	 * Tutti i percorsi da source a ogni v in G, v != source.
+	 * Tutti i percorsi da source a ogni v in G, v != source. Costruito solo se
+	 * richiesto da getAllShortestPaths().
 	 */
 	ArrayList<ArrayList<Integer>> allShortestPaths;
 
-	@SuppressWarnings("unchecked")
 	DijkstraSP(EdgeWeightedDigraph G, int s) {
-		this.prevEdges = (ArrayList<Integer>[]) new ArrayList[G.V()];
-		for (int i = 0; i < G.V(); i++)
-			this.prevEdges[i] = new ArrayList<>();
+		this(G, s, new DijkstraWorkspace(G.V()));
+	}
+
+	/**
+	 * Come DijkstraSP(G, s), con la coda con priorita' pq.
+	 * 
+	 * @param pq
+	 *            coda vuota con indici da 0 a V - 1
+	 */
+	DijkstraSP(EdgeWeightedDigraph G, int s, VertexPQ pq) {
+		this(G, s, new DijkstraWorkspace(G.V(), pq));
+	}
+
+	/**
+	 * Come DijkstraSP(G, s), usando gli array di lavoro di ws invece di
+	 * allocarne di nuovi: alla fine restano solo le distanze, il DAG dei
+	 * predecessori e sigma dei vertici raggiunti. Gli archi di peso negativo
+	 * vengono rifiutati quando la visita li incontra, come in BrandesSP.
+	 * 
+	 * @param ws
+	 *            workspace per G.V() vertici, non usato da altri thread
+	 */
+	DijkstraSP(EdgeWeightedDigraph G, int s, DijkstraWorkspace ws) {
+		if (ws.V() != G.V())
+			throw new IllegalArgumentException("Workspace must have one entry per vertex");
+		this.V = G.V();
 		this.sourceNode = s;
-		this.allShortestPaths = new ArrayList<>(32);
-		this.tempPathList = new ArrayList<>(32);
-		for (DirectedEdge e : G.edges())
-			if (e.weight() < 0)
-				throw new IllegalArgumentException("edge " + e + " has negative weight");
-		this.distTo = new double[G.V()];
-		for (int v = 0; v < G.V(); v++)
-			distTo[v] = Double.POSITIVE_INFINITY;
-		distTo[s] = 0.0;
-		this.prevEdges[s] = null;
-		pq = new IndexMinPQ<Double>(G.V());
-		pq.insert(s, distTo[s]);
-		while (!pq.isEmpty()) {
-			int v = pq.delMin();
+		validateVertex(s);
+		ws.begin();
+		ws.setDistTo(s, 0.0);
+		ws.pq.insert(s, 0.0);
+		while (!ws.pq.isEmpty()) {
+			int v = ws.pq.delMin();
+			ws.settle(v);
 			for (DirectedEdge e : G.adj(v))
-				relax(e);
+				relax(ws, e);
+		}
+		/*
+		 * Numero i vertici raggiunti in ordine crescente e copio le liste dei
+		 * predecessori in CSR. Le liste del workspace sono in ordine inverso,
+		 * quindi riempio ogni tratto dalla fine.
+		 */
+		int n = ws.reached();
+		int[] index = ws.index;
+		this.vertices = new int[n];
+		for (int i = 0; i < n; i++)
+			vertices[i] = ws.settled(i);
+		Arrays.sort(vertices);
+		this.distTo = new double[n];
+		for (int i = 0; i < n; i++) {
+			index[vertices[i]] = i;
+			distTo[i] = ws.distTo(vertices[i]);
+		}
+		this.source = index[s];
+		this.predOffset = new int[n + 1];
+		for (int i = 0; i < n; i++)
+			if (i != source)
+				for (int p = ws.firstPred(vertices[i]); p != -1; p = ws.nextPred(p))
+					predOffset[i + 1]++;
+		for (int i = 0; i < n; i++)
+			predOffset[i + 1] += predOffset[i];
+		this.pred = new int[predOffset[n]];
+		for (int i = 0; i < n; i++) {
+			int k = predOffset[i + 1];
+			if (i != source)
+				for (int p = ws.firstPred(vertices[i]); p != -1; p = ws.nextPred(p))
+					pred[--k] = index[ws.predFrom(p)];
 		}
-		for (int v = 0; v < G.V(); v++)
-			if (v != s) {
-				getAllShortestPathsTo(v);
-				if (this.distTo[v] < Double.POSITIVE_INFINITY)
-					allShortestPaths.addAll(tempPathList);
+		countPaths(ws);
+	}
+
+	/**
+	 * sigma[i] = somma di sigma sui predecessori di i, con una visita in
+	 * profondita' all'indietro (con pila esplicita) che tratta i predecessori prima
+	 * di i. Durante la visita sigma vale -1 per i vertici non ancora visitati e -2
+	 * per quelli sulla pila. I cappi si saltano; un altro predecessore sulla pila
+	 * chiude un ciclo di peso 0 e allora i cammini semplici si contano con
+	 * SimplePaths. I cicli per source non contano: il DAG non ha archi entranti in
+	 * source.
+	 */
+	private void countPaths(DijkstraWorkspace ws) {
+		int n = vertices.length;
+		this.sigma = new double[n];
+		Arrays.fill(sigma, -1);
+		sigma[source] = 1;
+		int[] stack = ws.dfsStack, next = ws.dfsNext;
+		for (int i = 0; i < n; i++) {
+			if (sigma[i] != -1)
+				continue;
+			int depth = 0;
+			stack[depth] = i;
+			next[depth++] = predOffset[i];
+			sigma[i] = -2;
+			while (depth > 0) {
+				int v = stack[depth - 1];
+				if (next[depth - 1] < predOffset[v + 1]) {
+					int p = pred[next[depth - 1]++];
+					if (sigma[p] == -1) {
+						stack[depth] = p;
+						next[depth++] = predOffset[p];
+						sigma[p] = -2;
+					} else if (sigma[p] == -2 && p != v) {
+						countSimplePaths(ws.cycles());
+						return;
+					}
+				} else {
+					double count = 0;
+					for (int k = predOffset[v]; k < predOffset[v + 1]; k++)
+						if (pred[k] != v)
+							count += sigma[pred[k]];
+					sigma[v] = count;
+					depth--;
+				}
 			}
+		}
+	}
+
+	private void countSimplePaths(SimplePaths cycles) {
+		cycles.begin(sourceNode);
+		for (int i = 0; i < vertices.length; i++)
+			for (int k = predOffset[i]; k < predOffset[i + 1]; k++)
+				cycles.addArc(vertices[pred[k]], vertices[i], 0);
+		cycles.build();
+		for (int i = 0; i < vertices.length; i++)
+			sigma[i] = cycles.sigma(vertices[i]);
 	}
 
 	/**
-	 * Metodo di supporto.
-	 * 
-	 * @param dest
+	 * Indice di v in vertices, negativo se v non e' raggiunto.
 	 */
-	private void getAllShortestPathsTo(int dest) {
-		this.tempPathList.clear();
-		getShortestPaths(new ArrayList<Integer>(), dest);
+	private int indexOf(int v) {
+		validateVertex(v);
+		return Arrays.binarySearch(vertices, v);
 	}
 
-	private ArrayList<Integer> getShortestPaths(ArrayList<Integer> shortestPath, int dest) {
-		ArrayList<Integer> prev = prevEdges[dest];
-		/*
-		 * Se prev == null, sono arrivato a source. Aggiungi il nodo corrente e salva il
-		 * percorso.
+	/**
+	 * Lunghezza dello shortest path da source a v, +infinito se v non e'
+	 * raggiungibile.
+	 */
+	public double distTo(int v) {
+		int i = indexOf(v);
+		return i < 0 ? Double.POSITIVE_INFINITY : distTo[i];
+	}
+
+	public boolean hasPathTo(int v) {
+		return indexOf(v) >= 0;
+	}
+
+	/**
+	 * Numero di predecessori di v nel DAG degli shortest path.
+	 */
+	public int predecessorCount(int v) {
+		int i = indexOf(v);
+		return i < 0 ? 0 : predOffset[i + 1] - predOffset[i];
+	}
+
+	/**
+	 * L'i-esimo predecessore di v nel DAG degli shortest path, da 0 a
+	 * predecessorCount(v) - 1.
+	 */
+	public int predecessor(int v, int i) {
+		if (i < 0 || i >= predecessorCount(v))
+			throw new IndexOutOfBoundsException();
+		return vertices[pred[predOffset[indexOf(v)] + i]];
+	}
+
+	/**
+	 * Numero di shortest path da source a v, 0 se v non e' raggiunto: e' sempre
+	 * il numero di cammini generati da paths(v), anche con cicli di peso 0.
+	 */
+	public double sigma(int v) {
+		int i = indexOf(v);
+		return i < 0 ? 0 : sigma[i];
+	}
+
+	/**
+	 * sigma[v] = sigma(v) per ogni vertice di G. L'array viene creato alla prima
+	 * chiamata e costa O(V): per pochi vertici conviene sigma(v).
+	 */
+	public double[] getSigma() {
+		if (sigmaByVertex == null) {
+			sigmaByVertex = new double[V];
+			for (int i = 0; i < vertices.length; i++)
+				sigmaByVertex[vertices[i]] = sigma[i];
+		}
+		return sigmaByVertex;
+	}
+
+	// throw an IllegalArgumentException unless {@code 0 <= v < V}
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+	}
+
+	/**
+	 * Vista su uno shortest path da source: i vertici da get(0) = source a
+	 * get(length() - 1) = destinazione. L'iteratore riusa la stessa vista, che e'
+	 * valida fino alla successiva chiamata di hasNext() o next(); toArray() ne fa
+	 * una copia.
+	 */
+	public static class Path {
+		/**
+		 * I vertici dalla destinazione a source.
+		 */
+		private int[] reversed;
+		private int length;
+
+		public int length() {
+			return length;
+		}
+
+		/**
+		 * L'i-esimo vertice del cammino, da 0 (source) a length() - 1.
 		 */
-		if (prev == null) {
-			shortestPath.add(0, dest);
-			tempPathList.add(shortestPath);
-		} else {
-			/*
-			 * Altrimenti, aggiungi il nodo corrent al path e, per ogni arco in prev procedi
-			 * ricorsivamente.
-			 */
-			ArrayList<Integer> updatedPath = new ArrayList<>(shortestPath);
-			updatedPath.add(0, dest);
-			for (int p : prev)
-				getShortestPaths(new ArrayList<>(updatedPath), p);
+		public int get(int i) {
+			if (i < 0 || i >= length)
+				throw new IndexOutOfBoundsException();
+			return reversed[length - 1 - i];
+		}
+
+		public int[] toArray() {
+			int[] path = new int[length];
+			for (int i = 0; i < length; i++)
+				path[i] = reversed[length - 1 - i];
+			return path;
+		}
+
+		public String toString() {
+			return Arrays.toString(toArray());
+		}
+	}
+
+	/**
+	 * Tutti gli shortest path da source a ogni v != source, nello stesso ordine di
+	 * getAllShortestPaths(), generati uno alla volta.
+	 */
+	public Iterable<Path> paths() {
+		return () -> new PathIterator(-1);
+	}
+
+	/**
+	 * Tutti gli shortest path da source a target, generati uno alla volta (il solo
+	 * cammino [source] se target == source, nessuno se target non e' raggiunto).
+	 */
+	public Iterable<Path> paths(int target) {
+		validateVertex(target);
+		return () -> new PathIterator(target);
+	}
+
+	/**
+	 * Visita in profondita' all'indietro del DAG dei predecessori con una pila
+	 * esplicita di indici: stack[0] e' la destinazione, stack[depth - 1] il
+	 * vertice corrente e choice[d] il prossimo predecessore da provare per
+	 * stack[d]; path.reversed tiene i vertici corrispondenti. I vertici gia' sulla
+	 * pila vengono saltati, cosi' i cicli di peso 0 non producono cammini
+	 * infiniti.
+	 */
+	private class PathIterator implements Iterator<Path> {
+		private final int[] stack, choice;
+		private final boolean[] onPath;
+		private final Path path = new Path();
+		private int depth;
+		/**
+		 * Indice della prossima destinazione da visitare; -1 se si enumera una
+		 * destinazione sola.
+		 */
+		private int nextTarget;
+		/**
+		 * C'e' un cammino pronto (in cima alla pila) non ancora restituito? E' gia'
+		 * stato restituito e va tolto dalla pila?
+		 */
+		private boolean ready, emitted;
+
+		private PathIterator(int target) {
+			int n = vertices.length;
+			this.stack = new int[n];
+			this.choice = new int[n];
+			this.onPath = new boolean[n];
+			this.path.reversed = new int[n];
+			this.nextTarget = target == -1 ? 0 : -1;
+			if (target != -1 && indexOf(target) >= 0)
+				push(indexOf(target));
+		}
+
+		private void push(int i) {
+			stack[depth] = i;
+			path.reversed[depth] = vertices[i];
+			choice[depth++] = 0;
+			onPath[i] = true;
+		}
+
+		private void pop() {
+			onPath[stack[--depth]] = false;
+		}
+
+		/**
+		 * Porta in cima alla pila il prossimo cammino completo.
+		 */
+		private boolean advance() {
+			if (emitted) {
+				pop();
+				emitted = false;
+			}
+			while (true) {
+				if (depth == 0) {
+					if (nextTarget == -1 || nextTarget == vertices.length)
+						return false;
+					int t = nextTarget++;
+					if (t != source)
+						push(t);
+					continue;
+				}
+				int v = stack[depth - 1];
+				if (v == source) {
+					path.length = depth;
+					return true;
+				}
+				if (predOffset[v] + choice[depth - 1] < predOffset[v + 1]) {
+					int p = pred[predOffset[v] + choice[depth - 1]++];
+					if (!onPath[p])
+						push(p);
+				} else
+					pop();
+			}
+		}
+
+		public boolean hasNext() {
+			if (!ready)
+				ready = advance();
+			return ready;
+		}
+
+		public Path next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			ready = false;
+			emitted = true;
+			return path;
 		}
-		return shortestPath;
 	}
 
 	/**
@@ -98,29 +409,44 @@ public class DijkstraSP {
 	 * 
 	 * La distanza  uguale? aggiungi l'arco alla lista.
 	 * 
+	 * @param ws
+	 *            workspace della visita
 	 * @param e
 	 *            l'arco da rilassare
 	 */
-	private void relax(DirectedEdge e) {
+	private static void relax(DijkstraWorkspace ws, DirectedEdge e) {
+		if (e.weight() < 0)
+			throw new IllegalArgumentException("edge " + e + " has negative weight");
 		int v = e.from(), w = e.to();
-		if (distTo[w] > distTo[v] + e.weight()) {
-			distTo[w] = distTo[v] + e.weight();
-			this.prevEdges[w].clear();
-			this.prevEdges[w].add(e.from());
-			if (pq.contains(w))
-				pq.decreaseKey(w, distTo[w]);
+		double d = ws.distTo(v) + e.weight();
+		if (ws.distTo(w) > d) {
+			ws.setDistTo(w, d);
+			ws.addPred(w, v);
+			if (ws.pq.contains(w))
+				ws.pq.decreaseKey(w, d);
 			else
-				pq.insert(w, distTo[w]);
-		} else if (distTo[w] == distTo[v] + e.weight())
-			this.prevEdges[w].add(e.from());
+				ws.pq.insert(w, d);
+		} else if (ws.distTo(w) == d)
+			ws.addPred(w, v);
 	}
 
 	/**
-	 * Getter per allShortestPaths.
+	 * Getter per allShortestPaths. I cammini vengono materializzati alla prima
+	 * chiamata: il loro numero puo' crescere esponenzialmente con i cammini di
+	 * pari lunghezza, per scorrerli senza tenerli in memoria si usa paths().
 	 * 
 	 * @return tutti gli shortest path che partono da source.
 	 */
 	public ArrayList<ArrayList<Integer>> getAllShortestPaths() {
+		if (this.allShortestPaths == null) {
+			this.allShortestPaths = new ArrayList<>(32);
+			for (Path p : paths()) {
+				ArrayList<Integer> path = new ArrayList<>(p.length());
+				for (int i = 0; i < p.length(); i++)
+					path.add(p.get(i));
+				allShortestPaths.add(path);
+			}
+		}
 		return this.allShortestPaths;
 	}
 }
@@ -0,0 +1,154 @@
+package progetto;
+
+import java.util.Arrays;
+
+/**
+ * Array di lavoro di Dijkstra da riusare tra una sorgente e l'altra
+ * (DijkstraSP, DijkstraAllPairsSP): distanze, coda con priorita', vertici
+ * estratti e liste dei predecessori.
+ *
+ * Invece di riempire gli array a ogni visita si usa un numero di visita
+ * (epoch): i valori di v valgono solo se stamp[v] == epoch, altrimenti v non e'
+ * ancora stato raggiunto. Iniziare una visita costa O(1), e la visita tocca
+ * solo i vertici che raggiunge. Un workspace va usato da un thread alla volta.
+ */
+public class DijkstraWorkspace {
+	private final int V;
+	private final int[] stamp;
+	private int epoch;
+	private final double[] distTo;
+	final VertexPQ pq;
+	/**
+	 * Vertici estratti nella visita corrente, in ordine di estrazione.
+	 */
+	private final int[] settled;
+	private int reached;
+	/**
+	 * Predecessori come liste collegate: predHead[v] e' il primo elemento della
+	 * lista di v (-1 se vuota), predFrom[i] il predecessore e predNext[i]
+	 * l'elemento successivo. Gli elementi si riusano a ogni visita.
+	 */
+	private final int[] predHead;
+	private int[] predFrom, predNext;
+	private int preds;
+	/**
+	 * Pila della visita in profondita' con cui DijkstraSP calcola sigma.
+	 */
+	final int[] dfsStack, dfsNext;
+	/**
+	 * Posizione di ogni vertice raggiunto tra quelli ordinati di DijkstraSP;
+	 * vale solo durante la costruzione.
+	 */
+	final int[] index;
+	/**
+	 * Per i grafi dei predecessori con cicli di peso 0, allocato alla prima
+	 * visita che ne ha bisogno.
+	 */
+	private SimplePaths cycles;
+
+	/**
+	 * Workspace per grafi con V vertici, con la coda di default.
+	 */
+	public DijkstraWorkspace(int V) {
+		this(V, new IndexMinDoublePQ(V));
+	}
+
+	/**
+	 * Workspace per grafi con V vertici.
+	 *
+	 * @param pq
+	 *            coda vuota con indici da 0 a V - 1
+	 */
+	public DijkstraWorkspace(int V, VertexPQ pq) {
+		if (!pq.isEmpty())
+			throw new IllegalArgumentException("Priority queue must be empty");
+		this.V = V;
+		this.stamp = new int[V];
+		this.distTo = new double[V];
+		this.pq = pq;
+		this.settled = new int[V];
+		this.predHead = new int[V];
+		this.predFrom = new int[Math.max(V, 16)];
+		this.predNext = new int[predFrom.length];
+		this.dfsStack = new int[V];
+		this.dfsNext = new int[V];
+		this.index = new int[V];
+	}
+
+	public int V() {
+		return V;
+	}
+
+	/**
+	 * Inizia una nuova visita: tutti i vertici tornano non raggiunti.
+	 */
+	void begin() {
+		pq.clear();
+		reached = 0;
+		preds = 0;
+		if (++epoch == Integer.MAX_VALUE) {
+			Arrays.fill(stamp, 0);
+			epoch = 1;
+		}
+	}
+
+	/**
+	 * Distanza di v nella visita corrente (+infinito se non raggiunto).
+	 */
+	double distTo(int v) {
+		return stamp[v] == epoch ? distTo[v] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Nuova distanza di v: la lista dei predecessori di v viene svuotata.
+	 */
+	void setDistTo(int v, double d) {
+		stamp[v] = epoch;
+		distTo[v] = d;
+		predHead[v] = -1;
+	}
+
+	void addPred(int v, int from) {
+		if (preds == predFrom.length) {
+			predFrom = Arrays.copyOf(predFrom, 2 * preds);
+			predNext = Arrays.copyOf(predNext, 2 * preds);
+		}
+		predFrom[preds] = from;
+		predNext[preds] = predHead[v];
+		predHead[v] = preds++;
+	}
+
+	/**
+	 * Primo elemento della lista dei predecessori di v, -1 se vuota o se v non e'
+	 * stato raggiunto.
+	 */
+	int firstPred(int v) {
+		return stamp[v] == epoch ? predHead[v] : -1;
+	}
+
+	int nextPred(int i) {
+		return predNext[i];
+	}
+
+	int predFrom(int i) {
+		return predFrom[i];
+	}
+
+	void settle(int v) {
+		settled[reached++] = v;
+	}
+
+	int reached() {
+		return reached;
+	}
+
+	int settled(int i) {
+		return settled[i];
+	}
+
+	SimplePaths cycles() {
+		if (cycles == null)
+			cycles = new SimplePaths(V);
+		return cycles;
+	}
+}
@@ -0,0 +1,223 @@
+package progetto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Betweenness centrality mantenuta mentre il grafo cambia (inserimento e
+ * cancellazione di archi), nello stile di QUBE/iCentral: si ricalcolano solo le
+ * sorgenti il cui DAG degli shortest path cambia davvero.
+ *
+ * Per ogni sorgente s si tengono le distanze ripesate distTo[s][v]. Con i
+ * potenziali di Johnson h un arco u->v di peso w ha peso ripesato w + h[u] -
+ * h[v], e per la sorgente s:
+ * <ul>
+ * <li>l'inserimento cambia il DAG solo se distTo[s][u] + peso <=
+ * distTo[s][v];</li>
+ * <li>la cancellazione cambia il DAG solo se l'arco era su uno shortest path,
+ * cioe' distTo[s][u] + peso == distTo[s][v].</li>
+ * </ul>
+ * Per le sorgenti coinvolte si sottraggono le dipendenze calcolate sul grafo
+ * prima della modifica e si sommano quelle calcolate dopo. Se un arco inserito
+ * ha peso ripesato negativo i potenziali vengono riparati da
+ * IncrementalPotentials senza rifare Bellman-Ford; i pesi ripesati cambiano,
+ * quindi si ricalcolano tutte le sorgenti.
+ *
+ * La memoria e' O(V^2) per le distanze.
+ */
+public class DynamicBetweenness {
+	/**
+	 * Il grafo con i pesi originali (archi copiati, quelli del chiamante non
+	 * vengono mai modificati).
+	 */
+	private EdgeWeightedDigraph original;
+	/**
+	 * Potenziali di Johnson di original, aggiornati a ogni inserimento.
+	 */
+	private IncrementalPotentials potentials;
+	/**
+	 * Vista di original ripesata con i potenziali di Johnson. Le modifiche a
+	 * original e ai potenziali si vedono subito anche attraverso la vista.
+	 */
+	private ReweightedDigraph G;
+	/**
+	 * distTo[s][v] = distanza ripesata da s a v.
+	 */
+	private double[][] distTo;
+	/**
+	 * Punteggi. scores[i] = punteggio vertice i-esimo.
+	 */
+	private double[] scores;
+	private BrandesSP bsp;
+
+	/**
+	 * Calcola la betweenness iniziale di InputGraph.
+	 *
+	 * @param InputGraph
+	 *            grafo di input, non viene modificato.
+	 * @throws IllegalArgumentException
+	 *             se il grafo contiene un ciclo negativo
+	 */
+	public DynamicBetweenness(EdgeWeightedDigraph InputGraph) {
+		this.original = copy(InputGraph);
+		this.potentials = new IncrementalPotentials(original);
+		this.G = potentials.graph();
+		this.distTo = new double[InputGraph.V()][];
+		rebuild();
+	}
+
+	/**
+	 * Inserisce l'arco e aggiornando i punteggi.
+	 *
+	 * @return il numero di sorgenti ricalcolate.
+	 */
+	public int addEdge(DirectedEdge e) {
+		return update(Arrays.asList(e), new ArrayList<DirectedEdge>());
+	}
+
+	/**
+	 * Cancella gli archi uguali a e aggiornando i punteggi.
+	 *
+	 * @return il numero di sorgenti ricalcolate.
+	 */
+	public int deleteEdge(DirectedEdge e) {
+		return update(new ArrayList<DirectedEdge>(), Arrays.asList(e));
+	}
+
+	/**
+	 * Applica un gruppo di modifiche e aggiorna i punteggi una volta sola. Una
+	 * sorgente non coinvolta da nessuna modifica singola (rispetto al grafo prima
+	 * del gruppo) non e' coinvolta neanche dal gruppo: le cancellazioni che non le
+	 * toccano non cambiano le sue distanze.
+	 *
+	 * @param inserted
+	 *            archi da inserire, con i pesi originali
+	 * @param deleted
+	 *            archi da cancellare, con i pesi originali
+	 * @return il numero di sorgenti ricalcolate.
+	 * @throws IllegalArgumentException
+	 *             se le modifiche creano un ciclo negativo (il grafo resta com'era)
+	 */
+	public int update(Iterable<DirectedEdge> inserted, Iterable<DirectedEdge> deleted) {
+		int n = original.V();
+		boolean[] affected = new boolean[n];
+		boolean reweight = false;
+		for (DirectedEdge e : deleted)
+			validateEdge(e);
+		for (DirectedEdge e : inserted)
+			validateEdge(e);
+		for (DirectedEdge e : inserted) {
+			double w = reduced(e);
+			if (w < 0) {
+				reweight = true;
+				break;
+			}
+			for (int s = 0; s < n; s++)
+				if (distTo[s][e.from()] != Double.POSITIVE_INFINITY && distTo[s][e.from()] + w <= distTo[s][e.to()])
+					affected[s] = true;
+		}
+		if (reweight)
+			return updateAll(inserted, deleted);
+		for (DirectedEdge e : deleted) {
+			double w = reduced(e);
+			for (int s = 0; s < n; s++)
+				if (distTo[s][e.from()] != Double.POSITIVE_INFINITY && distTo[s][e.from()] + w == distTo[s][e.to()])
+					affected[s] = true;
+		}
+		/*
+		 * Dipendenze delle sorgenti coinvolte prima della modifica...
+		 */
+		double[] before = new double[G.V()];
+		for (int s = 0; s < n; s++)
+			if (affected[s]) {
+				bsp.run(G, s);
+				bsp.accumulate(G, before);
+			}
+		for (DirectedEdge e : deleted)
+			original.deleteEdge(e);
+		for (DirectedEdge e : inserted)
+			original.addEdge(new DirectedEdge(e.from(), e.to(), e.weight()));
+		/*
+		 * ...e dopo.
+		 */
+		double[] after = new double[G.V()];
+		int recomputed = 0;
+		for (int s = 0; s < n; s++)
+			if (affected[s]) {
+				bsp.run(G, s);
+				bsp.accumulate(G, after);
+				saveDistances(s);
+				recomputed++;
+			}
+		for (int v = 0; v < G.V(); v++)
+			scores[v] += after[v] - before[v];
+		return recomputed;
+	}
+
+	/**
+	 * Applica le modifiche, ripara i potenziali e ricalcola i punteggi da zero.
+	 *
+	 * @return il numero di sorgenti ricalcolate.
+	 */
+	private int updateAll(Iterable<DirectedEdge> inserted, Iterable<DirectedEdge> deleted) {
+		EdgeWeightedDigraph previous = copy(original);
+		double[] h = potentials.potentials();
+		for (DirectedEdge e : deleted)
+			original.deleteEdge(e);
+		for (DirectedEdge e : inserted)
+			if (!potentials.addEdge(new DirectedEdge(e.from(), e.to(), e.weight()))) {
+				original = previous;
+				potentials = new IncrementalPotentials(original, h);
+				G = potentials.graph();
+				throw new IllegalArgumentException("Negative cost cycle exists");
+			}
+		rebuild();
+		return original.V();
+	}
+
+	/**
+	 * Calcola distanze e punteggi per tutte le sorgenti.
+	 */
+	private void rebuild() {
+		int n = original.V();
+		this.scores = new double[n];
+		this.bsp = new BrandesSP(G.V());
+		for (int s = 0; s < n; s++) {
+			bsp.run(G, s);
+			bsp.accumulate(G, scores);
+			saveDistances(s);
+		}
+	}
+
+	private void saveDistances(int s) {
+		if (distTo[s] == null)
+			distTo[s] = new double[G.V()];
+		for (int v = 0; v < G.V(); v++)
+			distTo[s][v] = bsp.distTo(v);
+	}
+
+	/**
+	 * Peso ripesato di e con i potenziali correnti.
+	 */
+	private double reduced(DirectedEdge e) {
+		return G.weight(e);
+	}
+
+	// throw an IllegalArgumentException unless both endpoints are in the graph
+	private void validateEdge(DirectedEdge e) {
+		int V = original.V();
+		if (e.from() >= V || e.to() >= V)
+			throw new IllegalArgumentException("edge " + e + " has a vertex not between 0 and " + (V - 1));
+	}
+
+	private static EdgeWeightedDigraph copy(EdgeWeightedDigraph G) {
+		EdgeWeightedDigraph copy = new EdgeWeightedDigraph(G.V());
+		for (DirectedEdge e : G.edges())
+			copy.addEdge(new DirectedEdge(e.from(), e.to(), e.weight()));
+		return copy;
+	}
+
+	public double[] getScores() {
+		return scores;
+	}
+}
@@ -8,9 +8,10 @@ public class EdgeWeightedDigraph {
 	private final int V; // number of vertices in this digraph
 	private int E; // number of edges in this digraph
 	private Bag<DirectedEdge>[] adj; // adj[v] = adjacency list for vertex v
+	private Bag<DirectedEdge>[] radj; // radj[v] = edges pointing to vertex v
 	private int[] indegree; // indegree[v] = indegree of vertex v
 
-	@SuppressWarnings("unchecked")
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public EdgeWeightedDigraph(int V) {
 		if (V < 0)
 			throw new IllegalArgumentException("Number of vertices in a Digraph must be nonnegative");
@@ -18,8 +19,11 @@ public class EdgeWeightedDigraph {
 		this.E = 0;
 		this.indegree = new int[V];
 		adj = (Bag<DirectedEdge>[]) new Bag[V];
-		for (int v = 0; v < V; v++)
+		radj = (Bag<DirectedEdge>[]) new Bag[V];
+		for (int v = 0; v < V; v++) {
 			adj[v] = new Bag<DirectedEdge>();
+			radj[v] = new Bag<DirectedEdge>();
+		}
 	}
 
 	public Bag<DirectedEdge>[] getAdg() {
@@ -67,6 +71,7 @@ public class EdgeWeightedDigraph {
 			}
 			for (DirectedEdge e : reverse) {
 				adj[v].add(e);
+				radj[e.to()].add(e);
 			}
 		}
 	}
@@ -91,26 +96,53 @@ public class EdgeWeightedDigraph {
 		validateVertex(v);
 		validateVertex(w);
 		adj[v].add(e);
+		radj[w].add(e);
 		indegree[w]++;
 		E++;
 	}
 
+	// remove every edge equal to e, looking only at the edges leaving e.from()
 	public void deleteEdge(DirectedEdge e) {
-		Iterator<DirectedEdge> i = this.edges().iterator();
-		while (i.hasNext()) {
-			DirectedEdge de = (DirectedEdge) i.next();
-			if (de.equals(e)) {
-				this.adj[e.from()].remove(e);
+		int v = e.from();
+		int w = e.to();
+		validateVertex(v);
+		validateVertex(w);
+		int removed = 0;
+		Iterator<DirectedEdge> i = this.adj[v].iterator();
+		while (i.hasNext())
+			if (i.next().equals(e)) {
 				i.remove();
+				removed++;
 			}
+		if (removed > 0) {
+			this.radj[w].remove(e);
+			indegree[w] -= removed;
+			E -= removed;
 		}
 	}
 
+	// remove every edge leaving v
+	public void clearAdj(int v) {
+		validateVertex(v);
+		for (DirectedEdge e : adj[v]) {
+			radj[e.to()].remove(e);
+			indegree[e.to()]--;
+			E--;
+		}
+		adj[v].clear();
+	}
+
 	public Iterable<DirectedEdge> adj(int v) {
 		validateVertex(v);
 		return adj[v];
 	}
 
+	// edges pointing to v
+	public Iterable<DirectedEdge> inAdj(int v) {
+		validateVertex(v);
+		return radj[v];
+	}
+
 	public int outdegree(int v) {
 		validateVertex(v);
 		return adj[v].size();
@@ -131,6 +163,40 @@ public class EdgeWeightedDigraph {
 		return list;
 	}
 
+	// the weight shared by every edge, NaN if the weights differ or there are no
+	// edges; scanned on each call because DirectedEdge.setWeight can change a
+	// weight without the graph knowing
+	public double uniformWeight() {
+		double weight = Double.NaN;
+		for (int v = 0; v < V; v++)
+			for (DirectedEdge e : adj[v]) {
+				if (Double.isNaN(weight))
+					weight = e.weight();
+				else if (e.weight() != weight)
+					return Double.NaN;
+			}
+		return weight;
+	}
+
+	// does any edge have a negative weight? Scanned on each call, like
+	// uniformWeight()
+	public boolean hasNegativeWeight() {
+		for (int v = 0; v < V; v++)
+			for (DirectedEdge e : adj[v])
+				if (e.weight() < 0)
+					return true;
+		return false;
+	}
+
+	// offsets[v] + i = index of the i-th edge of adj(v), that is its position in
+	// edges() and edgesAsArray(); offsets[V] = E
+	public int[] edgeOffsets() {
+		int[] offsets = new int[V + 1];
+		for (int v = 0; v < V; v++)
+			offsets[v + 1] = offsets[v] + adj[v].size();
+		return offsets;
+	}
+
 	public ArrayList<DirectedEdge> edgesAsArray() {
 		ArrayList<DirectedEdge> tmp = new ArrayList<>();
 		for (DirectedEdge de : this.edges())
@@ -138,6 +204,17 @@ public class EdgeWeightedDigraph {
 		return tmp;
 	}
 
+	// the reverse digraph: an edge v->w of this digraph becomes w->v with the same
+	// weight; the edges are new objects, so setWeight on one does not change the
+	// other
+	public EdgeWeightedDigraph reverse() {
+		EdgeWeightedDigraph reverse = new EdgeWeightedDigraph(V);
+		for (int v = 0; v < V; v++)
+			for (DirectedEdge e : adj[v])
+				reverse.addEdge(new DirectedEdge(e.to(), e.from(), e.weight()));
+		return reverse;
+	}
+
 	public String toString() {
 		StringBuilder s = new StringBuilder();
 		s.append(V + " " + E + NEWLINE);
@@ -0,0 +1,411 @@
+package progetto;
+
+import java.util.Arrays;
+
+/**
+ * Potenziali di Johnson per grafi con pesi interi (anche negativi) con
+ * l'algoritmo di scaling di Goldberg.
+ *
+ * Sia N il massimo |peso| negativo e 2^b > N. Alla fase i i costi sono
+ * ceil(peso / 2^(b-i)): alla fase 0 nessuno e' negativo e i potenziali nulli
+ * vanno bene; passando alla fase successiva i potenziali raddoppiano e ogni
+ * costo ridotto (costo + p[u] - p[v]) resta >= -1. Ogni fase risolve quindi il
+ * "problema -1": rendere non negativi costi ridotti che valgono almeno -1.
+ * All'ultima fase i costi sono i pesi originali.
+ *
+ * Il problema -1 si risolve a iterazioni, ognuna O(V + E). Il grafo
+ * ammissibile (archi con costo ridotto <= 0) viene contratto nelle sue
+ * componenti fortemente connesse: un arco di costo -1 dentro una componente
+ * chiude un ciclo negativo. Sul DAG delle componenti layer[v] e' il massimo
+ * numero di archi -1 su un cammino ammissibile che finisce in v; i vertici
+ * migliorabili sono quelli con un arco entrante di costo -1. Come in Goldberg,
+ * con k vertici migliorabili:
+ * <ul>
+ * <li>se uno strato ne contiene almeno sqrt(k) si taglia il grafo sotto quello
+ * strato, sistemandoli tutti;</li>
+ * <li>altrimenti gli strati sono piu' di sqrt(k) e si elimina una catena di
+ * componenti che li attraversa tutti, sistemando un vertice per strato.</li>
+ * </ul>
+ * Nessuno dei due passi crea vertici migliorabili, quindi ogni fase richiede
+ * O(sqrt(V)) iterazioni e in tutto il tempo e' O(sqrt(V) E log N).
+ */
+public class GoldbergScaling {
+	private final int V;
+	/**
+	 * Archi in ordine di vertice di partenza: quelli uscenti da v sono gli indici
+	 * da first[v] a first[v + 1] - 1.
+	 */
+	private final int[] first, to;
+	private final long[] weight;
+	private final DirectedEdge[] edges;
+	/**
+	 * Costi della fase corrente e potenziali.
+	 */
+	private long[] cost;
+	private long[] p;
+	private int phases, iterations;
+	private Iterable<DirectedEdge> cycle;
+
+	/**
+	 * Calcola i potenziali di G.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @throws IllegalArgumentException
+	 *             se un peso non e' intero
+	 */
+	public GoldbergScaling(EdgeWeightedDigraph G) {
+		this.V = G.V();
+		int E = G.E();
+		this.first = new int[V + 1];
+		this.to = new int[E];
+		this.weight = new long[E];
+		this.edges = new DirectedEdge[E];
+		long N = 0;
+		int i = 0;
+		for (int v = 0; v < V; v++) {
+			first[v] = i;
+			for (DirectedEdge e : G.adj(v)) {
+				if (!isInteger(e.weight()))
+					throw new IllegalArgumentException("edge " + e + " has a non-integer weight");
+				to[i] = e.to();
+				weight[i] = (long) e.weight();
+				edges[i++] = e;
+				N = Math.max(N, -(long) e.weight());
+			}
+		}
+		first[V] = i;
+		this.cost = new long[E];
+		this.p = new long[V];
+		int b = 0;
+		while (b < 62 && (1L << b) <= N)
+			b++;
+		for (int shift = b - 1; shift >= 0 && cycle == null; shift--) {
+			phases++;
+			for (int v = 0; v < V; v++)
+				p[v] *= 2;
+			for (int j = 0; j < E; j++)
+				cost[j] = -Math.floorDiv(-weight[j], 1L << shift);
+			refine();
+		}
+	}
+
+	/**
+	 * Il peso e' un intero rappresentabile esattamente?
+	 */
+	static boolean isInteger(double weight) {
+		return weight == Math.rint(weight) && Math.abs(weight) <= (1L << 53);
+	}
+
+	/**
+	 * Tutti i pesi di G sono interi?
+	 */
+	public static boolean hasIntegerWeights(EdgeWeightedDigraph G) {
+		for (DirectedEdge e : G.edges())
+			if (!isInteger(e.weight()))
+				return false;
+		return true;
+	}
+
+	private long reduced(int u, int j) {
+		return cost[j] + p[u] - p[to[j]];
+	}
+
+	/**
+	 * Problema -1: porta a >= 0 i costi ridotti, che all'inizio sono >= -1.
+	 */
+	private void refine() {
+		int[] comp = new int[V];
+		int[] layer = new int[V];
+		int[] mark = new int[V];
+		int previous = Integer.MAX_VALUE;
+		while (true) {
+			iterations++;
+			/*
+			 * Strati sulle componenti del grafo ammissibile: Tarjan numera le componenti
+			 * in ordine topologico inverso, quindi gli archi ammissibili tra componenti
+			 * vanno da un numero piu' alto a uno piu' basso. Un arco -1 dentro una
+			 * componente chiude un ciclo negativo. layerArc[c] e' l'arco che ha dato lo
+			 * strato alla componente c (-1 per lo strato 0).
+			 */
+			int components = admissibleComponents(comp);
+			int[] byComp = sortByComponent(comp, components);
+			int[] compLayer = new int[components];
+			int[] layerArc = new int[components];
+			Arrays.fill(layerArc, -1);
+			int maxLayer = 0;
+			for (int x = V - 1; x >= 0; x--) {
+				int u = byComp[x];
+				for (int j = first[u]; j < first[u + 1]; j++) {
+					long r = reduced(u, j);
+					int w = to[j];
+					if (r > 0)
+						continue;
+					if (comp[w] != comp[u]) {
+						int l = compLayer[comp[u]] + (r < 0 ? 1 : 0);
+						if (l > compLayer[comp[w]]) {
+							compLayer[comp[w]] = l;
+							layerArc[comp[w]] = j;
+							maxLayer = Math.max(maxLayer, l);
+						}
+					} else if (r < 0) {
+						findNegativeCycle(u, j, comp);
+						return;
+					}
+				}
+			}
+			if (maxLayer == 0)
+				return;
+			for (int v = 0; v < V; v++)
+				layer[v] = compLayer[comp[v]];
+			/*
+			 * Vertici migliorabili (con un arco entrante -1) per strato.
+			 */
+			int[] improvable = new int[maxLayer + 1];
+			int k = 0;
+			for (int u = 0; u < V; u++)
+				for (int j = first[u]; j < first[u + 1]; j++)
+					if (reduced(u, j) < 0 && mark[to[j]] != iterations) {
+						mark[to[j]] = iterations;
+						improvable[layer[to[j]]]++;
+						k++;
+					}
+			int best = 1;
+			for (int i = 2; i <= maxLayer; i++)
+				if (improvable[i] > improvable[best])
+					best = i;
+			/*
+			 * Se l'ultima eliminazione lungo la catena non ha sistemato nessun vertice
+			 * (puo' succedere solo con un ciclo negativo) si taglia, che sistema sempre
+			 * almeno uno strato: prima o poi il ciclo finisce in una componente.
+			 */
+			if ((long) improvable[best] * improvable[best] >= k || k >= previous)
+				cut(layer, best);
+			else
+				eliminateChain(comp, compLayer, layerArc, layer, maxLayer);
+			previous = k;
+		}
+	}
+
+	/**
+	 * Taglio allo strato i: p diminuisce di 1 sui vertici di strato >= i. Gli
+	 * archi -1 che entrano nello strato i vengono da strati piu' bassi e passano a
+	 * 0; gli archi che escono dall'insieme non sono ammissibili (altrimenti
+	 * porterebbero a uno strato >= i), quindi valgono almeno 1 e restano >= 0.
+	 */
+	private void cut(int[] layer, int i) {
+		for (int v = 0; v < V; v++)
+			if (layer[v] >= i)
+				p[v]--;
+	}
+
+	/**
+	 * Eliminazione lungo una catena. Risalendo con layerArc da una componente
+	 * dello strato massimo si ottiene una catena di componenti che tocca tutti gli
+	 * strati, da 0 a maxLayer. Si parte da q[v] = -layer[v] per i vertici della
+	 * catena e q[v] = 0 per gli altri, si calcola con Dial il massimo q sotto
+	 * questi valori che rispetta i costi max(costo ridotto, 0) e si pone p += q.
+	 *
+	 * Gli archi con costo ridotto >= 0 restano >= 0 e quelli -1 restano >= -1,
+	 * quindi non nascono vertici migliorabili. Se non ci sono cicli negativi ogni
+	 * arco -1 che entra in un vertice y della catena passa a >= 0: un cammino da
+	 * un vertice x della catena alla sua origine u, con q(x) + lunghezza <=
+	 * -layer[y], chiuderebbe con l'arco u->y e la catena da y a x un ciclo
+	 * negativo, oppure (se x precede y nella catena) darebbe a y uno strato piu'
+	 * alto. Si sistemano cosi' almeno maxLayer vertici, uno per strato.
+	 */
+	private void eliminateChain(int[] comp, int[] compLayer, int[] layerArc, int[] layer, int maxLayer) {
+		boolean[] onChain = new boolean[compLayer.length];
+		int c = 0;
+		while (compLayer[c] != maxLayer)
+			c++;
+		while (c != -1) {
+			onChain[c] = true;
+			c = layerArc[c] == -1 ? -1 : comp[edges[layerArc[c]].from()];
+		}
+		int[] q = new int[V];
+		int[] head = new int[maxLayer];
+		int[] next = new int[V];
+		int[] prev = new int[V];
+		Arrays.fill(head, -1);
+		for (int v = 0; v < V; v++)
+			if (onChain[comp[v]] && layer[v] > 0) {
+				q[v] = -layer[v];
+				bucketInsert(head, next, prev, v, q[v] + maxLayer);
+			}
+		/*
+		 * I vertici con q = 0 non abbassano nessun altro: basta visitare i bucket
+		 * negativi.
+		 */
+		for (int bucket = 0; bucket < maxLayer; bucket++)
+			while (head[bucket] != -1) {
+				int u = head[bucket];
+				bucketRemove(head, next, prev, u, bucket);
+				for (int j = first[u]; j < first[u + 1]; j++) {
+					int w = to[j];
+					long nq = q[u] + Math.max(reduced(u, j), 0);
+					if (nq < q[w]) {
+						if (q[w] < 0)
+							bucketRemove(head, next, prev, w, q[w] + maxLayer);
+						q[w] = (int) nq;
+						bucketInsert(head, next, prev, w, q[w] + maxLayer);
+					}
+				}
+			}
+		for (int v = 0; v < V; v++)
+			p[v] += q[v];
+	}
+
+	private static void bucketInsert(int[] head, int[] next, int[] prev, int v, int bucket) {
+		next[v] = head[bucket];
+		prev[v] = -1;
+		if (head[bucket] != -1)
+			prev[head[bucket]] = v;
+		head[bucket] = v;
+	}
+
+	private static void bucketRemove(int[] head, int[] next, int[] prev, int v, int bucket) {
+		if (prev[v] != -1)
+			next[prev[v]] = next[v];
+		else
+			head[bucket] = next[v];
+		if (next[v] != -1)
+			prev[next[v]] = prev[v];
+	}
+
+	/**
+	 * Componenti fortemente connesse del grafo ammissibile (Tarjan, iterativo).
+	 *
+	 * @return il numero di componenti; comp[v] e' la componente di v.
+	 */
+	private int admissibleComponents(int[] comp) {
+		int[] index = new int[V];
+		int[] low = new int[V];
+		int[] edge = new int[V];
+		int[] stack = new int[V];
+		int[] call = new int[V];
+		boolean[] onStack = new boolean[V];
+		Arrays.fill(index, -1);
+		int counter = 0, top = 0, components = 0;
+		for (int s = 0; s < V; s++) {
+			if (index[s] != -1)
+				continue;
+			int depth = 0;
+			call[depth++] = s;
+			index[s] = low[s] = counter++;
+			edge[s] = first[s];
+			stack[top++] = s;
+			onStack[s] = true;
+			while (depth > 0) {
+				int u = call[depth - 1];
+				if (edge[u] < first[u + 1]) {
+					int j = edge[u]++;
+					if (reduced(u, j) > 0)
+						continue;
+					int w = to[j];
+					if (index[w] == -1) {
+						index[w] = low[w] = counter++;
+						edge[w] = first[w];
+						stack[top++] = w;
+						onStack[w] = true;
+						call[depth++] = w;
+					} else if (onStack[w])
+						low[u] = Math.min(low[u], index[w]);
+				} else {
+					depth--;
+					if (depth > 0)
+						low[call[depth - 1]] = Math.min(low[call[depth - 1]], low[u]);
+					if (low[u] == index[u]) {
+						int w;
+						do {
+							w = stack[--top];
+							onStack[w] = false;
+							comp[w] = components;
+						} while (w != u);
+						components++;
+					}
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * I vertici ordinati per componente crescente (counting sort).
+	 */
+	private int[] sortByComponent(int[] comp, int components) {
+		int[] count = new int[components + 1];
+		for (int v = 0; v < V; v++)
+			count[comp[v] + 1]++;
+		for (int c = 0; c < components; c++)
+			count[c + 1] += count[c];
+		int[] sorted = new int[V];
+		for (int v = 0; v < V; v++)
+			sorted[count[comp[v]]++] = v;
+		return sorted;
+	}
+
+	/**
+	 * L'arco j, da u, ha costo ridotto -1 ed e' dentro una componente: il ciclo e'
+	 * l'arco seguito da un cammino ammissibile che torna a u (visita in ampiezza
+	 * nella componente). Il ciclo ha costo ridotto, e quindi costo, negativo alla
+	 * fase corrente; i costi scalati approssimano per eccesso i pesi, quindi e'
+	 * negativo anche con i pesi originali.
+	 */
+	private void findNegativeCycle(int u, int j, int[] comp) {
+		int[] parent = new int[V];
+		Arrays.fill(parent, -1);
+		Queue<Integer> queue = new Queue<Integer>();
+		int start = to[j];
+		parent[start] = j;
+		queue.enqueue(start);
+		while (!queue.isEmpty() && parent[u] == -1) {
+			int v = queue.dequeue();
+			for (int i = first[v]; i < first[v + 1]; i++) {
+				int w = to[i];
+				if (parent[w] == -1 && comp[w] == comp[u] && reduced(v, i) <= 0) {
+					parent[w] = i;
+					queue.enqueue(w);
+				}
+			}
+		}
+		Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+		for (int v = u; v != start; v = edges[parent[v]].from())
+			path.push(edges[parent[v]]);
+		path.push(edges[j]);
+		cycle = path;
+	}
+
+	public boolean hasNegativeCycle() {
+		return cycle != null;
+	}
+
+	public Iterable<DirectedEdge> negativeCycle() {
+		return cycle;
+	}
+
+	/**
+	 * Potenziale di v: ogni arco u->v ha peso + potential(u) - potential(v) >= 0.
+	 */
+	public double potential(int v) {
+		if (hasNegativeCycle())
+			throw new UnsupportedOperationException("Negative cost cycle exists");
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+		return p[v];
+	}
+
+	/**
+	 * Numero di fasi di scaling.
+	 */
+	public int phases() {
+		return phases;
+	}
+
+	/**
+	 * Numero totale di iterazioni del problema -1.
+	 */
+	public int iterations() {
+		return iterations;
+	}
+}
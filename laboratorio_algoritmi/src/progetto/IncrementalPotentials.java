@@ -0,0 +1,194 @@
+package progetto;
+
+/**
+ * Potenziali di Johnson mantenuti mentre si aggiungono archi, senza rifare
+ * Bellman-Ford.
+ *
+ * Sia h valido (ogni arco ha costo ridotto peso + h[a] - h[b] >= 0) e si
+ * aggiunga u->v con costo ridotto r < 0. Detta d(x) la distanza ridotta da v a
+ * x, che si calcola con Dijkstra perche' i costi ridotti sono non negativi, i
+ * nuovi potenziali sono h[x] + min(0, r + d(x)): ogni vecchio arco resta
+ * valido, perche' d(b) <= d(a) + costo ridotto di a->b, e il nuovo arco ha
+ * costo ridotto min(0, r + d(u)). Se r + d(u) < 0 il cammino da v a u chiude
+ * con il nuovo arco un ciclo negativo, che viene restituito senza modificare
+ * grafo e potenziali.
+ *
+ * Dijkstra si ferma ai vertici con d(x) >= -r, il cui potenziale non cambia:
+ * il lavoro e' proporzionale alla zona toccata dal nuovo arco. Cancellare
+ * archi non invalida mai i potenziali.
+ */
+public class IncrementalPotentials {
+	private final EdgeWeightedDigraph G;
+	private final double[] h;
+	private final ReweightedDigraph view;
+	/**
+	 * Spazio di lavoro di Dijkstra, riusato tra un inserimento e l'altro: dopo ogni
+	 * visita distTo torna a +infinito sui vertici toccati.
+	 */
+	private final double[] distTo;
+	private final DirectedEdge[] edgeTo;
+	private final int[] touched;
+	private final IndexMinDoublePQ pq;
+	private int settled;
+	private Iterable<DirectedEdge> cycle;
+
+	/**
+	 * Calcola i potenziali iniziali di G con Johnson.
+	 *
+	 * @param G
+	 *            il grafo, che viene modificato da addEdge e deleteEdge
+	 * @throws IllegalArgumentException
+	 *             se il grafo contiene un ciclo negativo
+	 */
+	public IncrementalPotentials(EdgeWeightedDigraph G) {
+		this(G, potentials(G));
+	}
+
+	/**
+	 * Parte da potenziali gia' calcolati per G.
+	 *
+	 * @param G
+	 *            il grafo, che viene modificato da addEdge e deleteEdge
+	 * @param h
+	 *            potenziali, uno per vertice (copiati)
+	 * @throws IllegalArgumentException
+	 *             se un arco ha costo ridotto negativo
+	 */
+	public IncrementalPotentials(EdgeWeightedDigraph G, double[] h) {
+		if (h.length != G.V())
+			throw new IllegalArgumentException("Potentials must have one entry per vertex");
+		this.G = G;
+		this.h = h.clone();
+		for (DirectedEdge e : G.edges())
+			if (!(e.weight() + this.h[e.from()] - this.h[e.to()] >= 0))
+				throw new IllegalArgumentException("edge " + e + " has a negative reduced cost");
+		this.view = new ReweightedDigraph(G, this.h);
+		int V = G.V();
+		this.distTo = new double[V];
+		this.edgeTo = new DirectedEdge[V];
+		this.touched = new int[V];
+		this.pq = new IndexMinDoublePQ(V);
+		for (int v = 0; v < V; v++)
+			distTo[v] = Double.POSITIVE_INFINITY;
+	}
+
+	private static double[] potentials(EdgeWeightedDigraph G) {
+		Johnson johnson = new Johnson(G);
+		if (johnson.hasNegativeCycle())
+			throw new IllegalArgumentException("Negative cost cycle exists");
+		ReweightedDigraph view = johnson.graph();
+		double[] h = new double[G.V()];
+		for (int v = 0; v < G.V(); v++)
+			h[v] = view.potential(v);
+		return h;
+	}
+
+	/**
+	 * Aggiunge e al grafo aggiornando i potenziali.
+	 *
+	 * @return false se e chiude un ciclo negativo: in questo caso grafo e
+	 *         potenziali non cambiano e il ciclo e' restituito da negativeCycle().
+	 */
+	public boolean addEdge(DirectedEdge e) {
+		int u = e.from(), v = e.to();
+		if (u >= G.V() || v >= G.V())
+			throw new IllegalArgumentException("edge " + e + " has a vertex not between 0 and " + (G.V() - 1));
+		this.cycle = null;
+		this.settled = 0;
+		double r = view.weight(e);
+		if (r >= 0) {
+			G.addEdge(e);
+			return true;
+		}
+		boolean negative = false;
+		distTo[v] = 0.0;
+		edgeTo[v] = null;
+		pq.insert(v, 0.0);
+		while (!pq.isEmpty()) {
+			int x = pq.delMin();
+			touched[settled++] = x;
+			if (x == u) {
+				negative = true;
+				break;
+			}
+			for (DirectedEdge f : G.adj(x)) {
+				int y = f.to();
+				double d = distTo[x] + view.weight(f);
+				// i vertici gia' estratti restano fermi anche se l'arrotondamento li migliora
+				if (d < distTo[y] && r + d < 0 && (pq.contains(y) || distTo[y] == Double.POSITIVE_INFINITY)) {
+					if (pq.contains(y))
+						pq.decreaseKey(y, d);
+					else
+						pq.insert(y, d);
+					distTo[y] = d;
+					edgeTo[y] = f;
+				}
+			}
+		}
+		if (negative) {
+			Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+			for (DirectedEdge f = edgeTo[u]; f != null; f = edgeTo[f.from()])
+				path.push(f);
+			path.push(e);
+			this.cycle = path;
+		} else
+			for (int i = 0; i < settled; i++)
+				h[touched[i]] += r + distTo[touched[i]];
+		reset();
+		if (negative)
+			return false;
+		G.addEdge(e);
+		return true;
+	}
+
+	/**
+	 * Rimette distTo a +infinito sui vertici toccati dall'ultima visita.
+	 */
+	private void reset() {
+		for (int i = 0; i < settled; i++)
+			distTo[touched[i]] = Double.POSITIVE_INFINITY;
+		while (!pq.isEmpty()) {
+			int x = pq.delMin();
+			distTo[x] = Double.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Cancella dal grafo gli archi uguali a e; i potenziali restano validi.
+	 */
+	public void deleteEdge(DirectedEdge e) {
+		G.deleteEdge(e);
+	}
+
+	/**
+	 * Ciclo negativo trovato dall'ultimo addEdge, o null.
+	 */
+	public Iterable<DirectedEdge> negativeCycle() {
+		return cycle;
+	}
+
+	/**
+	 * Numero di vertici visitati dall'ultimo addEdge.
+	 */
+	public int settled() {
+		return settled;
+	}
+
+	/**
+	 * Vista ripesata del grafo con i potenziali correnti: segue gli aggiornamenti.
+	 */
+	public ReweightedDigraph graph() {
+		return view;
+	}
+
+	public double potential(int v) {
+		return h[v];
+	}
+
+	/**
+	 * Copia dei potenziali correnti.
+	 */
+	public double[] potentials() {
+		return h.clone();
+	}
+}
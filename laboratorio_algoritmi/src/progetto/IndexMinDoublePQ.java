@@ -0,0 +1,330 @@
+package progetto;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code IndexMinDoublePQ} class is an indexed priority queue of primitive
+ * {@code double} keys, with the same operations as {@code IndexMinPQ<Double>}
+ * but no boxing: keys are never allocated and comparisons are plain
+ * {@code <} on doubles.
+ * <p>
+ * This implementation uses a d-ary heap (d = 2, 4 or 8) stored 0-based in an
+ * array of indices, with the keys kept in a parallel array in heap order so
+ * that the children compared in <em>sink</em> are contiguous in memory. A
+ * larger d makes the heap shallower: <em>insert</em> and
+ * <em>decrease-key</em> take log_d n steps, <em>delete-the-minimum</em> takes
+ * d log_d n comparisons on adjacent keys. Entries move into a hole instead of
+ * being swapped.
+ * <p>
+ * For additional documentation, see
+ * <a href="http://algs4.cs.princeton.edu/24pq">Section 2.4</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class IndexMinDoublePQ implements VertexPQ {
+	private final int maxN; // maximum number of elements on PQ
+	private final int d; // arity of the heap
+	private final int shift; // log2(d)
+	private int n; // number of elements on PQ
+	private final int[] pq; // d-ary heap of indices, 0-based
+	private final double[] heapKeys; // heapKeys[k] = key of pq[k]
+	private final int[] qp; // inverse of pq - qp[pq[k]] = k, -1 if not on PQ
+
+	/**
+	 * Initializes an empty 4-ary indexed priority queue with indices between
+	 * {@code 0} and {@code maxN - 1}.
+	 *
+	 * @param maxN
+	 *            the keys on this priority queue are index from {@code 0}
+	 *            {@code maxN - 1}
+	 * @throws IllegalArgumentException
+	 *             if {@code maxN < 0}
+	 */
+	public IndexMinDoublePQ(int maxN) {
+		this(maxN, 4);
+	}
+
+	/**
+	 * Initializes an empty d-ary indexed priority queue with indices between
+	 * {@code 0} and {@code maxN - 1}.
+	 *
+	 * @param maxN
+	 *            the keys on this priority queue are index from {@code 0}
+	 *            {@code maxN - 1}
+	 * @param d
+	 *            the arity of the heap: 2, 4 or 8
+	 * @throws IllegalArgumentException
+	 *             if {@code maxN < 0} or d is not 2, 4 or 8
+	 */
+	public IndexMinDoublePQ(int maxN, int d) {
+		if (maxN < 0)
+			throw new IllegalArgumentException();
+		if (d != 2 && d != 4 && d != 8)
+			throw new IllegalArgumentException("Arity must be 2, 4 or 8");
+		this.maxN = maxN;
+		this.d = d;
+		this.shift = Integer.numberOfTrailingZeros(d);
+		this.pq = new int[maxN];
+		this.heapKeys = new double[maxN];
+		this.qp = new int[maxN];
+		for (int i = 0; i < maxN; i++)
+			qp[i] = -1;
+	}
+
+	/**
+	 * Returns true if this priority queue is empty.
+	 *
+	 * @return {@code true} if this priority queue is empty; {@code false} otherwise
+	 */
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	/**
+	 * Is {@code i} an index on this priority queue?
+	 *
+	 * @param i
+	 *            an index
+	 * @return {@code true} if {@code i} is an index on this priority queue;
+	 *         {@code false} otherwise
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= i < maxN}
+	 */
+	public boolean contains(int i) {
+		if (i < 0 || i >= maxN)
+			throw new IndexOutOfBoundsException();
+		return qp[i] != -1;
+	}
+
+	/**
+	 * Returns the number of keys on this priority queue.
+	 *
+	 * @return the number of keys on this priority queue
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Associates key with index {@code i}.
+	 *
+	 * @param i
+	 *            an index
+	 * @param key
+	 *            the key to associate with index {@code i}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= i < maxN}
+	 * @throws IllegalArgumentException
+	 *             if there already is an item associated with index {@code i}
+	 */
+	public void insert(int i, double key) {
+		if (contains(i))
+			throw new IllegalArgumentException("index is already in the priority queue");
+		swim(n++, i, key);
+	}
+
+	/**
+	 * Returns an index associated with a minimum key.
+	 *
+	 * @return an index associated with a minimum key
+	 * @throws NoSuchElementException
+	 *             if this priority queue is empty
+	 */
+	public int minIndex() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		return pq[0];
+	}
+
+	/**
+	 * Returns a minimum key.
+	 *
+	 * @return a minimum key
+	 * @throws NoSuchElementException
+	 *             if this priority queue is empty
+	 */
+	public double minKey() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		return heapKeys[0];
+	}
+
+	/**
+	 * Removes a minimum key and returns its associated index.
+	 *
+	 * @return an index associated with a minimum key
+	 * @throws NoSuchElementException
+	 *             if this priority queue is empty
+	 */
+	public int delMin() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		int min = pq[0];
+		qp[min] = -1;
+		if (--n > 0)
+			sink(0, pq[n], heapKeys[n]);
+		return min;
+	}
+
+	/**
+	 * Returns the key associated with index {@code i}.
+	 *
+	 * @param i
+	 *            the index of the key to return
+	 * @return the key associated with index {@code i}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= i < maxN}
+	 * @throws NoSuchElementException
+	 *             no key is associated with index {@code i}
+	 */
+	public double keyOf(int i) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		return heapKeys[qp[i]];
+	}
+
+	/**
+	 * Change the key associated with index {@code i} to the specified value.
+	 *
+	 * @param i
+	 *            the index of the key to change
+	 * @param key
+	 *            change the key associated with index {@code i} to this key
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= i < maxN}
+	 * @throws NoSuchElementException
+	 *             no key is associated with index {@code i}
+	 */
+	public void changeKey(int i, double key) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		if (key < heapKeys[qp[i]])
+			swim(qp[i], i, key);
+		else
+			sink(qp[i], i, key);
+	}
+
+	/**
+	 * Decrease the key associated with index {@code i} to the specified value.
+	 *
+	 * @param i
+	 *            the index of the key to decrease
+	 * @param key
+	 *            decrease the key associated with index {@code i} to this key
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= i < maxN}
+	 * @throws IllegalArgumentException
+	 *             if {@code key >= keyOf(i)}
+	 * @throws NoSuchElementException
+	 *             no key is associated with index {@code i}
+	 */
+	public void decreaseKey(int i, double key) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		if (!(key < heapKeys[qp[i]]))
+			throw new IllegalArgumentException(
+					"Calling decreaseKey() with given argument would not strictly decrease the key");
+		swim(qp[i], i, key);
+	}
+
+	/**
+	 * Increase the key associated with index {@code i} to the specified value.
+	 *
+	 * @param i
+	 *            the index of the key to increase
+	 * @param key
+	 *            increase the key associated with index {@code i} to this key
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= i < maxN}
+	 * @throws IllegalArgumentException
+	 *             if {@code key <= keyOf(i)}
+	 * @throws NoSuchElementException
+	 *             no key is associated with index {@code i}
+	 */
+	public void increaseKey(int i, double key) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		if (!(key > heapKeys[qp[i]]))
+			throw new IllegalArgumentException(
+					"Calling increaseKey() with given argument would not strictly increase the key");
+		sink(qp[i], i, key);
+	}
+
+	/**
+	 * Remove the key associated with index {@code i}.
+	 *
+	 * @param i
+	 *            the index of the key to remove
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= i < maxN}
+	 * @throws NoSuchElementException
+	 *             no key is associated with index {@code i}
+	 */
+	public void delete(int i) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		int k = qp[i];
+		qp[i] = -1;
+		if (--n == k)
+			return;
+		int last = pq[n];
+		double key = heapKeys[n];
+		if (k > 0 && key < heapKeys[(k - 1) >> shift])
+			swim(k, last, key);
+		else
+			sink(k, last, key);
+	}
+
+	/**
+	 * Removes all the keys, in time proportional to their number.
+	 */
+	public void clear() {
+		for (int k = 0; k < n; k++)
+			qp[pq[k]] = -1;
+		n = 0;
+	}
+
+	/***************************************************************************
+	 * Heap helper functions: place index i with the given key in the hole at
+	 * position k, moving parents down or children up.
+	 ***************************************************************************/
+	private void swim(int k, int i, double key) {
+		while (k > 0) {
+			int parent = (k - 1) >> shift;
+			if (!(key < heapKeys[parent]))
+				break;
+			move(parent, k);
+			k = parent;
+		}
+		place(k, i, key);
+	}
+
+	private void sink(int k, int i, double key) {
+		while (true) {
+			int first = (k << shift) + 1;
+			if (first >= n)
+				break;
+			int last = Math.min(first + d, n);
+			int min = first;
+			for (int j = first + 1; j < last; j++)
+				if (heapKeys[j] < heapKeys[min])
+					min = j;
+			if (!(heapKeys[min] < key))
+				break;
+			move(min, k);
+			k = min;
+		}
+		place(k, i, key);
+	}
+
+	private void move(int from, int to) {
+		pq[to] = pq[from];
+		heapKeys[to] = heapKeys[from];
+		qp[pq[to]] = to;
+	}
+
+	private void place(int k, int i, double key) {
+		pq[k] = i;
+		heapKeys[k] = key;
+		qp[i] = k;
+	}
+}
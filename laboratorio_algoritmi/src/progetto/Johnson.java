@@ -0,0 +1,150 @@
+package progetto;
+
+/**
+ * Ripesaggio di Johnson. Bellman-Ford da un vertice virtuale collegato con
+ * archi di peso 0 a tutti gli altri (senza aggiungerlo al grafo) calcola i
+ * potenziali h; con questi ogni arco u->v ha peso + h[u] - h[v] >= 0 e gli
+ * shortest path restano gli stessi, quindi si puo' usare Dijkstra.
+ *
+ * Il grafo non viene copiato ne' modificato: i pesi ripesati si leggono dalla
+ * vista restituita da graph(). Se nessun arco ha peso negativo Bellman-Ford non
+ * viene eseguito e la vista restituisce i pesi originali.
+ *
+ * Se tutti i pesi sono interi Bellman-Ford ha a disposizione al massimo
+ * BUDGET * E rilassamenti: sulla maggior parte dei grafi converge in poche
+ * passate, altrimenti i potenziali sono calcolati con lo scaling di Goldberg
+ * in O(sqrt(V) E log N), con N il massimo |peso| negativo. Nel caso pessimo
+ * il costo totale e' O(E + sqrt(V) E log N) invece dell'O(V E) di
+ * Bellman-Ford.
+ *
+ * Con una PotentialsCache i potenziali gia' calcolati per lo stesso grafo
+ * vengono riletti da disco e quelli nuovi salvati; se il salvataggio fallisce
+ * viene solo stampato un avviso.
+ */
+public class Johnson {
+	private static final int BUDGET = 16;
+	private ReweightedDigraph view;
+	private Iterable<DirectedEdge> cycle;
+
+	/**
+	 * Calcola i potenziali di Johnson di G.
+	 *
+	 * @param G
+	 *            il grafo
+	 */
+	public Johnson(EdgeWeightedDigraph G) {
+		this(G, 1);
+	}
+
+	/**
+	 * Come Johnson(G); con piu' di un thread e pesi non interi i potenziali sono
+	 * calcolati da ParallelBellmanFordSP.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param threads
+	 *            numero di thread da usare
+	 */
+	public Johnson(EdgeWeightedDigraph G, int threads) {
+		this(G, threads, null);
+	}
+
+	/**
+	 * Come Johnson(G, threads), leggendo e salvando i potenziali in cache.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param threads
+	 *            numero di thread da usare
+	 * @param cache
+	 *            cache dei potenziali, o null
+	 */
+	public Johnson(EdgeWeightedDigraph G, int threads, PotentialsCache cache) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive");
+		if (!G.hasNegativeWeight()) {
+			System.out.println("Nessun peso negativo: BellmanFordSP non necessario.");
+			this.view = new ReweightedDigraph(G, null);
+			return;
+		}
+		if (cache != null) {
+			Stopwatch CacheSW = new Stopwatch();
+			double[] cached = cache.load(G);
+			if (cached != null) {
+				System.out.printf("Potenziali letti dalla cache in %f secondi.\n", CacheSW.elapsedTime());
+				this.view = new ReweightedDigraph(G, cached);
+				return;
+			}
+		}
+		Stopwatch BellmanFordSW = new Stopwatch();
+		double[] h = new double[G.V()];
+		boolean integer = GoldbergScaling.hasIntegerWeights(G);
+		if (threads == 1 || integer) {
+			BellmanFordSP bfsp = new BellmanFordSP(G, BellmanFordSP.Strategy.FIFO,
+					integer ? (long) BUDGET * G.E() + G.V() : Long.MAX_VALUE);
+			if (bfsp.isComplete()) {
+				System.out.printf("BellmanFordSP completato in %f secondi (%d archi rilassati).\n",
+						BellmanFordSW.elapsedTime(), bfsp.cost());
+				if (bfsp.hasNegativeCycle()) {
+					this.cycle = bfsp.negativeCycle();
+					return;
+				}
+				for (int v = 0; v < G.V(); v++)
+					h[v] = bfsp.distTo(v);
+			} else {
+				System.out.printf("BellmanFordSP interrotto dopo %d archi rilassati.\n", bfsp.cost());
+				GoldbergScaling gs = new GoldbergScaling(G);
+				System.out.printf("GoldbergScaling completato in %f secondi (%d fasi, %d iterazioni).\n",
+						BellmanFordSW.elapsedTime(), gs.phases(), gs.iterations());
+				if (gs.hasNegativeCycle()) {
+					this.cycle = gs.negativeCycle();
+					return;
+				}
+				for (int v = 0; v < G.V(); v++)
+					h[v] = gs.potential(v);
+			}
+		} else {
+			ParallelBellmanFordSP bfsp = new ParallelBellmanFordSP(G, threads);
+			System.out.printf("ParallelBellmanFordSP completato in %f secondi (%d round).\n",
+					BellmanFordSW.elapsedTime(), bfsp.rounds());
+			if (bfsp.hasNegativeCycle()) {
+				this.cycle = bfsp.negativeCycle();
+				return;
+			}
+			for (int v = 0; v < G.V(); v++)
+				h[v] = bfsp.distTo(v);
+		}
+		if (cache != null) {
+			/*
+			 * La cache e' facoltativa: se non si riesce a scriverla i potenziali
+			 * restano comunque validi.
+			 */
+			try {
+				cache.store(G, h);
+			} catch (IllegalStateException e) {
+				System.out.printf("Potenziali non salvati in cache: %s.\n", e.getCause() != null ? e.getCause() : e);
+			}
+		}
+		this.view = new ReweightedDigraph(G, h);
+	}
+
+	public boolean hasNegativeCycle() {
+		return cycle != null;
+	}
+
+	public Iterable<DirectedEdge> negativeCycle() {
+		return cycle;
+	}
+
+	/**
+	 * Vista ripesata del grafo.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             se il grafo contiene un ciclo negativo
+	 */
+	public ReweightedDigraph graph() {
+		if (hasNegativeCycle())
+			throw new UnsupportedOperationException("Negative cost cycle exists");
+		return view;
+	}
+}
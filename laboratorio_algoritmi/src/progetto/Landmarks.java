@@ -0,0 +1,335 @@
+package progetto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Preprocessing ALT (A*, landmark, disuguaglianza triangolare): sceglie k
+ * landmark e per ognuno salva le distanze da e verso tutti i vertici, calcolate
+ * con DijkstraSP su G e sul grafo inverso.
+ *
+ * Per ogni landmark L e vertici v, t valgono d(L, t) - d(L, v) <= d(v, t) e
+ * d(v, L) - d(t, L) <= d(v, t): il massimo su tutti i landmark e' un limite
+ * inferiore di d(v, t), che ALTSP usa come euristica di A*.
+ *
+ * Le distanze valgono per i pesi al momento della costruzione: se G cambia il
+ * preprocessing va rifatto.
+ */
+public class Landmarks {
+	/**
+	 * Come scegliere i landmark.
+	 */
+	public enum Selection {
+		/**
+		 * k vertici distinti a caso.
+		 */
+		RANDOM,
+		/**
+		 * Ogni landmark e' il vertice piu' lontano da quelli gia' scelti (il primo
+		 * il piu' lontano da un vertice a caso), misurando d(L, v) + d(v, L).
+		 */
+		FARTHEST,
+		/**
+		 * Metodo avoid di Goldberg e Harrelson: nell'albero degli shortest path da
+		 * una radice a caso ogni vertice pesa quanto il limite inferiore attuale
+		 * sbaglia su d(radice, v); dalla radice del sottoalbero piu' pesante che non
+		 * contiene landmark si scende fino a una foglia, che diventa il nuovo
+		 * landmark.
+		 */
+		AVOID
+	}
+
+	private final EdgeWeightedDigraph G, reverse;
+	private final int[] landmarks;
+	/**
+	 * from[i][v] = d(landmarks[i], v), to[i][v] = d(v, landmarks[i]).
+	 */
+	private final double[][] from, to;
+
+	/**
+	 * k landmark scelti con FARTHEST, su un solo thread.
+	 */
+	public Landmarks(EdgeWeightedDigraph G, int k) {
+		this(G, k, Selection.FARTHEST, 1);
+	}
+
+	/**
+	 * @param G
+	 *            il grafo, con pesi non negativi
+	 * @param k
+	 *            numero di landmark, da 1 a G.V()
+	 * @param selection
+	 *            come scegliere i landmark
+	 * @param threads
+	 *            numero di thread per le visite di Dijkstra: con RANDOM si
+	 *            eseguono insieme tutte le 2k visite, con FARTHEST e AVOID le due
+	 *            visite di ogni landmark, perche' la scelta del successivo dipende
+	 *            dalle sue distanze
+	 */
+	public Landmarks(EdgeWeightedDigraph G, int k, Selection selection, int threads) {
+		if (k < 1 || k > G.V())
+			throw new IllegalArgumentException("Number of landmarks must be between 1 and " + G.V());
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive");
+		if (G.hasNegativeWeight())
+			throw new IllegalArgumentException("Landmarks require non-negative weights");
+		this.G = G;
+		this.reverse = G.reverse();
+		this.landmarks = new int[k];
+		this.from = new double[k][];
+		this.to = new double[k][];
+		ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			switch (selection) {
+			case RANDOM:
+				int[] perm = StdRandom.permutation(G.V(), k);
+				System.arraycopy(perm, 0, landmarks, 0, k);
+				distances(0, k, executor);
+				break;
+			case FARTHEST:
+				selectFarthest(executor);
+				break;
+			case AVOID:
+				selectAvoid(executor);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown selection " + selection);
+			}
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Calcola from e to per i landmark da lo a hi - 1, con le visite distribuite
+	 * su executor (o nel thread corrente se executor e' null).
+	 */
+	private void distances(int lo, int hi, ExecutorService executor) {
+		if (executor == null) {
+			for (int i = lo; i < hi; i++) {
+				from[i] = distances(G, landmarks[i]);
+				to[i] = distances(reverse, landmarks[i]);
+			}
+			return;
+		}
+		ArrayList<Future<?>> futures = new ArrayList<>(2 * (hi - lo));
+		for (int i = lo; i < hi; i++) {
+			int l = i;
+			futures.add(executor.submit(() -> from[l] = distances(G, landmarks[l])));
+			futures.add(executor.submit(() -> to[l] = distances(reverse, landmarks[l])));
+		}
+		try {
+			for (Future<?> f : futures)
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing landmark distances", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static double[] distances(EdgeWeightedDigraph G, int s) {
+		DijkstraSP sp = new DijkstraSP(G, s);
+		double[] dist = new double[G.V()];
+		for (int v = 0; v < G.V(); v++)
+			dist[v] = sp.distTo(v);
+		return dist;
+	}
+
+	/**
+	 * Il primo landmark e' il vertice piu' lontano da un vertice a caso, ogni
+	 * altro quello che massimizza la minima distanza d(L, v) + d(v, L) dai
+	 * landmark gia' scelti. Le distanze infinite contano 0, per non scegliere
+	 * vertici irraggiungibili solo perche' tali.
+	 */
+	private void selectFarthest(ExecutorService executor) {
+		int V = G.V();
+		double[] minDist = new double[V];
+		landmarks[0] = StdRandom.uniform(V);
+		distances(0, 1, executor);
+		landmarks[0] = farthest(0, minDist, true, 0);
+		distances(0, 1, executor);
+		for (int i = 1; i < landmarks.length; i++) {
+			landmarks[i] = farthest(i - 1, minDist, i == 1, i);
+			distances(i, i + 1, executor);
+		}
+	}
+
+	/**
+	 * Aggiorna minDist con le distanze del landmark i e restituisce il vertice
+	 * con minDist massima tra quelli che non sono tra i primi count landmark.
+	 */
+	private int farthest(int i, double[] minDist, boolean first, int count) {
+		int best = -1;
+		for (int v = 0; v < G.V(); v++) {
+			double d = finite(from[i][v]) + finite(to[i][v]);
+			minDist[v] = first ? d : Math.min(minDist[v], d);
+			if (!isLandmark(v, count) && (best == -1 || minDist[v] > minDist[best]))
+				best = v;
+		}
+		return best;
+	}
+
+	private static double finite(double d) {
+		return d == Double.POSITIVE_INFINITY ? 0 : d;
+	}
+
+	private boolean isLandmark(int v, int count) {
+		for (int i = 0; i < count; i++)
+			if (landmarks[i] == v)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Selezione avoid: per ogni landmark si calcola l'albero degli shortest path
+	 * da una radice r a caso; il peso di v e' d(r, v) - lowerBound(r, v) con i
+	 * landmark gia' scelti, la dimensione di v e' la somma dei pesi del suo
+	 * sottoalbero (0 se il sottoalbero contiene un landmark). Si parte dal vertice
+	 * di dimensione massima, che puo' stare anche sotto un antenato di un
+	 * landmark, e si scende sempre nel figlio di dimensione massima fino a una
+	 * foglia.
+	 */
+	private void selectAvoid(ExecutorService executor) {
+		int V = G.V();
+		double[] size = new double[V];
+		int[] childOffset = new int[V + 1], child = new int[V], order = new int[V];
+		for (int i = 0; i < landmarks.length; i++) {
+			int r = StdRandom.uniform(V);
+			DijkstraSP spt = new DijkstraSP(G, r);
+			/*
+			 * Figli in CSR: il padre di v e' il suo primo predecessore.
+			 */
+			Arrays.fill(childOffset, 0);
+			for (int v = 0; v < V; v++)
+				if (v != r && spt.hasPathTo(v))
+					childOffset[spt.predecessor(v, 0) + 1]++;
+			for (int v = 0; v < V; v++)
+				childOffset[v + 1] += childOffset[v];
+			int[] fill = childOffset.clone();
+			for (int v = 0; v < V; v++)
+				if (v != r && spt.hasPathTo(v))
+					child[fill[spt.predecessor(v, 0)]++] = v;
+			/*
+			 * Visita in preordine dalla radice; in ordine inverso ogni figlio viene
+			 * prima del padre.
+			 */
+			int n = 0;
+			order[n++] = r;
+			for (int j = 0; j < n; j++)
+				for (int c = childOffset[order[j]]; c < childOffset[order[j] + 1]; c++)
+					order[n++] = child[c];
+			boolean[] hasLandmark = new boolean[V];
+			for (int j = 0; j < i; j++)
+				hasLandmark[landmarks[j]] = true;
+			for (int j = n - 1; j >= 0; j--) {
+				int v = order[j];
+				size[v] = i == 0 ? spt.distTo(v) : spt.distTo(v) - lowerBound(r, v, i);
+				for (int c = childOffset[v]; c < childOffset[v + 1]; c++) {
+					hasLandmark[v] |= hasLandmark[child[c]];
+					size[v] += size[child[c]];
+				}
+			}
+			for (int j = 0; j < n; j++)
+				if (hasLandmark[order[j]])
+					size[order[j]] = 0;
+			int v = r;
+			for (int j = 1; j < n; j++)
+				if (size[order[j]] > size[v])
+					v = order[j];
+			while (size[v] > 0 && childOffset[v] < childOffset[v + 1]) {
+				int best = child[childOffset[v]];
+				for (int c = childOffset[v] + 1; c < childOffset[v + 1]; c++)
+					if (size[child[c]] > size[best])
+						best = child[c];
+				if (size[best] == 0)
+					break;
+				v = best;
+			}
+			/*
+			 * Se tutte le dimensioni sono 0 (ogni sottoalbero contiene un landmark, o
+			 * r e' isolata) e v e' un landmark si ripiega su un vertice a caso che non
+			 * lo sia.
+			 */
+			while (isLandmark(v, i))
+				v = StdRandom.uniform(V);
+			landmarks[i] = v;
+			distances(i, i + 1, executor);
+		}
+	}
+
+	/**
+	 * Limite inferiore di d(v, t): 0 se i landmark non danno informazioni,
+	 * +infinito se garantiscono che t non e' raggiungibile da v.
+	 */
+	public double lowerBound(int v, int t) {
+		validateVertex(v);
+		validateVertex(t);
+		return lowerBound(v, t, landmarks.length);
+	}
+
+	/**
+	 * lowerBound(v, t) con i primi count landmark.
+	 */
+	double lowerBound(int v, int t, int count) {
+		double bound = 0;
+		for (int i = 0; i < count; i++) {
+			/*
+			 * Un termine vale solo se il valore sottratto e' finito: se d(L, v) e'
+			 * infinito, da d(L, t) non si deduce nulla. Se invece L raggiunge v ma non
+			 * t, neanche v raggiunge t.
+			 */
+			double[] f = from[i], b = to[i];
+			if (f[v] < Double.POSITIVE_INFINITY && f[t] - f[v] > bound)
+				bound = f[t] - f[v];
+			if (b[t] < Double.POSITIVE_INFINITY && b[v] - b[t] > bound)
+				bound = b[v] - b[t];
+		}
+		return bound;
+	}
+
+	/**
+	 * Il grafo su cui sono calcolate le distanze.
+	 */
+	public EdgeWeightedDigraph graph() {
+		return G;
+	}
+
+	public int k() {
+		return landmarks.length;
+	}
+
+	public int[] landmarks() {
+		return landmarks.clone();
+	}
+
+	/**
+	 * d(landmarks()[i], v).
+	 */
+	public double distFrom(int i, int v) {
+		validateVertex(v);
+		return from[i][v];
+	}
+
+	/**
+	 * d(v, landmarks()[i]).
+	 */
+	public double distTo(int i, int v) {
+		validateVertex(v);
+		return to[i][v];
+	}
+
+	// throw an IllegalArgumentException unless {@code 0 <= v < V}
+	private void validateVertex(int v) {
+		if (v < 0 || v >= G.V())
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (G.V() - 1));
+	}
+}
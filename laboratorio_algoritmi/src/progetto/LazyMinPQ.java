@@ -0,0 +1,117 @@
+package progetto;
+
+import java.util.NoSuchElementException;
+
+/**
+ * VertexPQ su MinPQ, che non ha decreaseKey: decreaseKey inserisce una nuova
+ * copia dell'indice e le copie non piu' attuali vengono scartate quando
+ * arrivano in cima (eliminazione pigra). La coda contiene al piu' un elemento
+ * per rilassamento riuscito.
+ */
+public class LazyMinPQ implements VertexPQ {
+	private final int maxN;
+	private final double[] key;
+	/**
+	 * stamp[i] = numero dell'ultima copia di i inserita: le altre sono vecchie.
+	 */
+	private final int[] stamp;
+	private final boolean[] inQueue;
+	private MinPQ<Entry> pq = new MinPQ<Entry>();
+	private int n;
+
+	private static class Entry implements Comparable<Entry> {
+		private final int index, stamp;
+		private final double key;
+
+		private Entry(int index, int stamp, double key) {
+			this.index = index;
+			this.stamp = stamp;
+			this.key = key;
+		}
+
+		public int compareTo(Entry that) {
+			return Double.compare(this.key, that.key);
+		}
+	}
+
+	/**
+	 * @param maxN
+	 *            gli indici vanno da 0 a maxN - 1
+	 */
+	public LazyMinPQ(int maxN) {
+		if (maxN < 0)
+			throw new IllegalArgumentException();
+		this.maxN = maxN;
+		this.key = new double[maxN];
+		this.stamp = new int[maxN];
+		this.inQueue = new boolean[maxN];
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public boolean contains(int i) {
+		if (i < 0 || i >= maxN)
+			throw new IndexOutOfBoundsException();
+		return inQueue[i];
+	}
+
+	public void insert(int i, double key) {
+		if (contains(i))
+			throw new IllegalArgumentException("index is already in the priority queue");
+		inQueue[i] = true;
+		n++;
+		this.key[i] = key;
+		pq.insert(new Entry(i, ++stamp[i], key));
+	}
+
+	public void decreaseKey(int i, double key) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		if (!(key < this.key[i]))
+			throw new IllegalArgumentException(
+					"Calling decreaseKey() with given argument would not strictly decrease the key");
+		this.key[i] = key;
+		pq.insert(new Entry(i, ++stamp[i], key));
+	}
+
+	public double minKey() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		discardStale();
+		return pq.min().key;
+	}
+
+	public int delMin() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		discardStale();
+		int min = pq.delMin().index;
+		inQueue[min] = false;
+		n--;
+		return min;
+	}
+
+	public void clear() {
+		while (!pq.isEmpty())
+			inQueue[pq.delMin().index] = false;
+		n = 0;
+	}
+
+	/**
+	 * Toglie dalla cima le copie non piu' attuali.
+	 */
+	private void discardStale() {
+		while (true) {
+			Entry top = pq.min();
+			if (inQueue[top.index] && top.stamp == stamp[top.index])
+				return;
+			pq.delMin();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package progetto;
+
+/**
+ * Confronto delle implementazioni di VertexPQ: per ogni grafo generato esegue
+ * Dijkstra (BrandesSP.run) da alcune sorgenti con ogni tipo di coda e stampa i
+ * tempi, per scegliere la coda adatta al proprio tipo di grafo.
+ *
+ * Uso: java progetto.PQBenchmark [sorgenti] [seed]
+ */
+public class PQBenchmark {
+	private PQBenchmark() {
+	}
+
+	/**
+	 * Grafo casuale con V vertici e E archi di peso uniforme in [0, maxWeight).
+	 * Con integer i pesi sono interi (molti cammini di pari lunghezza).
+	 */
+	private static EdgeWeightedDigraph random(int V, int E, double maxWeight, boolean integer) {
+		EdgeWeightedDigraph G = new EdgeWeightedDigraph(V);
+		for (int i = 0; i < E; i++) {
+			double weight = integer ? StdRandom.uniform((int) maxWeight) : StdRandom.uniform(0.0, maxWeight);
+			G.addEdge(new DirectedEdge(StdRandom.uniform(V), StdRandom.uniform(V), weight));
+		}
+		return G;
+	}
+
+	/**
+	 * Griglia side x side con archi nei due versi e pesi interi in [1, 10].
+	 */
+	private static EdgeWeightedDigraph grid(int side) {
+		EdgeWeightedDigraph G = new EdgeWeightedDigraph(side * side);
+		for (int r = 0; r < side; r++)
+			for (int c = 0; c < side; c++) {
+				int v = r * side + c;
+				if (c + 1 < side) {
+					G.addEdge(new DirectedEdge(v, v + 1, StdRandom.uniform(1, 11)));
+					G.addEdge(new DirectedEdge(v + 1, v, StdRandom.uniform(1, 11)));
+				}
+				if (r + 1 < side) {
+					G.addEdge(new DirectedEdge(v, v + side, StdRandom.uniform(1, 11)));
+					G.addEdge(new DirectedEdge(v + side, v, StdRandom.uniform(1, 11)));
+				}
+			}
+		return G;
+	}
+
+	/**
+	 * Tempo in secondi per visitare le prime sources sorgenti di G con la coda
+	 * type.
+	 */
+	private static double time(EdgeWeightedDigraph G, VertexPQ.Type type, int sources) {
+		ReweightedDigraph view = new ReweightedDigraph(G, null);
+		BrandesSP bsp = new BrandesSP(G.V(), type.create(G.V()));
+		Stopwatch sw = new Stopwatch();
+		for (int s = 0; s < sources; s++)
+			bsp.run(view, s % G.V());
+		return sw.elapsedTime();
+	}
+
+	public static void main(String[] args) {
+		int sources = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		StdRandom.setSeed(args.length > 1 ? Long.parseLong(args[1]) : 1);
+		String[] names = { "sparso (V=100000, E=4V)", "denso (V=2000, E=200V)", "griglia 300x300",
+				"pesi 0..3 (V=100000, E=4V)" };
+		EdgeWeightedDigraph[] graphs = { random(100000, 400000, 1.0, false), random(2000, 400000, 1.0, false),
+				grid(300), random(100000, 400000, 4, true) };
+		VertexPQ.Type[] types = VertexPQ.Type.values();
+		/*
+		 * Un giro a vuoto per la compilazione JIT, poi le misure.
+		 */
+		for (EdgeWeightedDigraph G : graphs)
+			for (VertexPQ.Type type : types)
+				time(G, type, 1);
+		System.out.printf("%-28s", "grafo");
+		for (VertexPQ.Type type : types)
+			System.out.printf("%11s", type);
+		System.out.println();
+		for (int g = 0; g < graphs.length; g++) {
+			System.out.printf("%-28s", names[g]);
+			for (VertexPQ.Type type : types)
+				System.out.printf("%11.3f", time(graphs[g], type, sources));
+			System.out.println();
+		}
+	}
+}
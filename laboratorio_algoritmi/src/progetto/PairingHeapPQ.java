@@ -0,0 +1,153 @@
+package progetto;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Pairing heap indicizzato su array di primitivi. Ogni nodo ha il primo figlio,
+ * il fratello successivo e prev, che e' il fratello precedente oppure il padre
+ * se il nodo e' il primo figlio.
+ *
+ * insert e decreaseKey staccano il nodo (con il suo sottoalbero) e lo fondono
+ * con la radice in O(1); delMin fonde i figli della radice a coppie da sinistra
+ * a destra e poi i risultati da destra a sinistra, in O(log n) ammortizzato.
+ */
+public class PairingHeapPQ implements VertexPQ {
+	private final int maxN;
+	private final double[] key;
+	private final int[] child, sibling, prev;
+	private final boolean[] inHeap;
+	/**
+	 * Spazio di lavoro per delMin e clear.
+	 */
+	private final int[] buffer;
+	private int root = -1;
+	private int n;
+
+	/**
+	 * @param maxN
+	 *            gli indici vanno da 0 a maxN - 1
+	 */
+	public PairingHeapPQ(int maxN) {
+		if (maxN < 0)
+			throw new IllegalArgumentException();
+		this.maxN = maxN;
+		this.key = new double[maxN];
+		this.child = new int[maxN];
+		this.sibling = new int[maxN];
+		this.prev = new int[maxN];
+		this.inHeap = new boolean[maxN];
+		this.buffer = new int[maxN];
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public boolean contains(int i) {
+		if (i < 0 || i >= maxN)
+			throw new IndexOutOfBoundsException();
+		return inHeap[i];
+	}
+
+	public void insert(int i, double key) {
+		if (contains(i))
+			throw new IllegalArgumentException("index is already in the priority queue");
+		this.key[i] = key;
+		child[i] = sibling[i] = prev[i] = -1;
+		inHeap[i] = true;
+		n++;
+		root = link(root, i);
+	}
+
+	public void decreaseKey(int i, double key) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		if (!(key < this.key[i]))
+			throw new IllegalArgumentException(
+					"Calling decreaseKey() with given argument would not strictly decrease the key");
+		this.key[i] = key;
+		if (i == root)
+			return;
+		if (child[prev[i]] == i)
+			child[prev[i]] = sibling[i];
+		else
+			sibling[prev[i]] = sibling[i];
+		if (sibling[i] != -1)
+			prev[sibling[i]] = prev[i];
+		sibling[i] = prev[i] = -1;
+		root = link(root, i);
+	}
+
+	public double minKey() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		return key[root];
+	}
+
+	public int delMin() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		int min = root;
+		inHeap[min] = false;
+		n--;
+		int k = 0;
+		for (int c = child[min]; c != -1;) {
+			int next = sibling[c];
+			sibling[c] = prev[c] = -1;
+			buffer[k++] = c;
+			c = next;
+		}
+		/*
+		 * Prima passata a coppie da sinistra, seconda da destra.
+		 */
+		int pairs = 0;
+		for (int j = 0; j < k; j += 2)
+			buffer[pairs++] = j + 1 < k ? link(buffer[j], buffer[j + 1]) : buffer[j];
+		root = -1;
+		for (int j = pairs - 1; j >= 0; j--)
+			root = link(buffer[j], root);
+		return min;
+	}
+
+	public void clear() {
+		int top = 0;
+		if (root != -1)
+			buffer[top++] = root;
+		while (top > 0) {
+			int v = buffer[--top];
+			inHeap[v] = false;
+			if (sibling[v] != -1)
+				buffer[top++] = sibling[v];
+			if (child[v] != -1)
+				buffer[top++] = child[v];
+		}
+		root = -1;
+		n = 0;
+	}
+
+	/**
+	 * Fonde due alberi (radici a e b, senza fratelli): la radice con chiave
+	 * maggiore diventa il primo figlio dell'altra.
+	 */
+	private int link(int a, int b) {
+		if (a == -1)
+			return b;
+		if (b == -1)
+			return a;
+		if (key[b] < key[a]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		sibling[b] = child[a];
+		if (child[a] != -1)
+			prev[child[a]] = b;
+		prev[b] = a;
+		child[a] = b;
+		return a;
+	}
+}
@@ -0,0 +1,246 @@
+package progetto;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bellman-Ford a round, parallelo sugli archi. Gli archi sono copiati in array
+ * di primitivi (from, to, weight) ordinati per vertice di arrivo: in ogni round
+ * ogni vertice w calcola min(distTo[w], distTo[u] + peso) sui suoi archi
+ * entranti leggendo le distanze del round precedente, quindi i thread, che si
+ * dividono i vertici di arrivo, non scrivono mai sulle stesse celle e il
+ * risultato non dipende dal numero di thread. Si considerano solo gli archi il
+ * cui vertice di partenza e' cambiato nel round precedente.
+ *
+ * Senza cicli negativi un cammino minimo ha al piu' V - 1 archi, quindi dopo
+ * V - 1 round le distanze sono stabili; se cambiano ancora al round V c'e' un
+ * ciclo negativo, che si cerca nel grafo dei predecessori (si continua con
+ * altri round finche' non vi compare).
+ */
+public class ParallelBellmanFordSP {
+	/**
+	 * Vertici di arrivo per blocco di lavoro.
+	 */
+	private static final int CHUNK = 1024;
+	private final int V;
+	/**
+	 * Archi ordinati per vertice di arrivo: quelli entranti in w sono gli indici
+	 * da first[w] a first[w + 1] - 1.
+	 */
+	private final int[] from, first;
+	private final double[] weight;
+	private final DirectedEdge[] edges;
+	/**
+	 * Distanze e vertici cambiati nel round corrente e nel successivo.
+	 */
+	private double[] distTo, nextDistTo;
+	private boolean[] changed, nextChanged;
+	/**
+	 * edgeTo[w] = indice dell'ultimo arco sul cammino minimo verso w, -1 se non
+	 * c'e'.
+	 */
+	private final int[] edgeTo;
+	private int rounds;
+	private Iterable<DirectedEdge> cycle;
+
+	/**
+	 * Cammini minimi da s.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param s
+	 *            vertice di partenza
+	 * @param threads
+	 *            numero di thread da usare
+	 */
+	public ParallelBellmanFordSP(EdgeWeightedDigraph G, int s, int threads) {
+		this(G, s, threads, false);
+	}
+
+	/**
+	 * Cammini minimi da un vertice virtuale collegato con archi di peso 0 a tutti
+	 * gli altri, come BellmanFordSP(G): distTo() sono i potenziali di Johnson.
+	 *
+	 * @param G
+	 *            il grafo
+	 * @param threads
+	 *            numero di thread da usare
+	 */
+	public ParallelBellmanFordSP(EdgeWeightedDigraph G, int threads) {
+		this(G, -1, threads, true);
+	}
+
+	private ParallelBellmanFordSP(EdgeWeightedDigraph G, int s, int threads, boolean virtual) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive");
+		this.V = G.V();
+		if (!virtual && (s < 0 || s >= V))
+			throw new IllegalArgumentException("vertex " + s + " is not between 0 and " + (V - 1));
+		int E = G.E();
+		this.from = new int[E];
+		this.weight = new double[E];
+		this.edges = new DirectedEdge[E];
+		this.first = new int[V + 1];
+		int i = 0;
+		for (int w = 0; w < V; w++) {
+			first[w] = i;
+			for (DirectedEdge e : G.inAdj(w)) {
+				from[i] = e.from();
+				weight[i] = e.weight();
+				edges[i++] = e;
+			}
+		}
+		first[V] = i;
+		this.distTo = new double[V];
+		this.nextDistTo = new double[V];
+		this.changed = new boolean[V];
+		this.nextChanged = new boolean[V];
+		this.edgeTo = new int[V];
+		for (int v = 0; v < V; v++) {
+			distTo[v] = virtual ? 0.0 : Double.POSITIVE_INFINITY;
+			changed[v] = virtual;
+			edgeTo[v] = -1;
+		}
+		if (!virtual) {
+			distTo[s] = 0.0;
+			changed[s] = true;
+		}
+		int chunks = (V + CHUNK - 1) / CHUNK;
+		ExecutorService executor = threads == 1 ? null : Executors.newFixedThreadPool(threads);
+		try {
+			while (true) {
+				boolean any;
+				if (executor == null)
+					any = round(0, V);
+				else
+					any = parallelRound(executor, threads, chunks);
+				if (!any)
+					break;
+				rounds++;
+				double[] d = distTo;
+				distTo = nextDistTo;
+				nextDistTo = d;
+				boolean[] c = changed;
+				changed = nextChanged;
+				nextChanged = c;
+				if (rounds >= V && findNegativeCycle())
+					break;
+			}
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+		}
+	}
+
+	private boolean parallelRound(ExecutorService executor, int threads, int chunks) {
+		AtomicInteger next = new AtomicInteger();
+		ArrayList<Future<Boolean>> futures = new ArrayList<>(threads);
+		for (int t = 0; t < threads; t++)
+			futures.add(executor.submit(() -> {
+				boolean any = false;
+				for (int c = next.getAndIncrement(); c < chunks; c = next.getAndIncrement())
+					any |= round(c * CHUNK, Math.min(V, (c + 1) * CHUNK));
+				return any;
+			}));
+		boolean any = false;
+		try {
+			for (Future<Boolean> f : futures)
+				any |= f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing shortest paths", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		return any;
+	}
+
+	/**
+	 * Un round sui vertici di arrivo da lo a hi - 1.
+	 *
+	 * @return true se almeno una distanza e' cambiata.
+	 */
+	private boolean round(int lo, int hi) {
+		boolean any = false;
+		for (int w = lo; w < hi; w++) {
+			double best = distTo[w];
+			int bestEdge = -1;
+			for (int i = first[w]; i < first[w + 1]; i++) {
+				int u = from[i];
+				if (changed[u] && distTo[u] + weight[i] < best) {
+					best = distTo[u] + weight[i];
+					bestEdge = i;
+				}
+			}
+			nextDistTo[w] = best;
+			nextChanged[w] = bestEdge >= 0;
+			if (bestEdge >= 0) {
+				edgeTo[w] = bestEdge;
+				any = true;
+			}
+		}
+		return any;
+	}
+
+	// by finding a cycle in predecessor graph
+	private boolean findNegativeCycle() {
+		EdgeWeightedDigraph spt = new EdgeWeightedDigraph(V);
+		for (int v = 0; v < V; v++)
+			if (edgeTo[v] >= 0)
+				spt.addEdge(edges[edgeTo[v]]);
+		EdgeWeightedDirectedCycle finder = new EdgeWeightedDirectedCycle(spt);
+		cycle = finder.cycle();
+		return cycle != null;
+	}
+
+	public boolean hasNegativeCycle() {
+		return cycle != null;
+	}
+
+	public Iterable<DirectedEdge> negativeCycle() {
+		return cycle;
+	}
+
+	public double distTo(int v) {
+		validateVertex(v);
+		if (hasNegativeCycle())
+			throw new UnsupportedOperationException("Negative cost cycle exists");
+		return distTo[v];
+	}
+
+	public boolean hasPathTo(int v) {
+		validateVertex(v);
+		return distTo[v] < Double.POSITIVE_INFINITY;
+	}
+
+	public Iterable<DirectedEdge> pathTo(int v) {
+		validateVertex(v);
+		if (hasNegativeCycle())
+			throw new UnsupportedOperationException("Negative cost cycle exists");
+		if (!hasPathTo(v))
+			return null;
+		Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+		for (int i = edgeTo[v]; i >= 0; i = edgeTo[edges[i].from()])
+			path.push(edges[i]);
+		return path;
+	}
+
+	/**
+	 * Numero di round in cui almeno una distanza e' cambiata.
+	 */
+	public int rounds() {
+		return rounds;
+	}
+
+	// throw an IllegalArgumentException unless {@code 0 <= v < V}
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+	}
+}
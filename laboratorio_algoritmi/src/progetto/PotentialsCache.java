@@ -0,0 +1,112 @@
+package progetto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Cache su disco dei potenziali di Johnson, per non rifare Bellman-Ford quando
+ * si analizza piu' volte lo stesso grafo.
+ *
+ * Ogni grafo ha un file nella directory della cache, con nome ricavato da
+ * un'impronta a 64 bit della lista degli archi (estremi e pesi, nell'ordine di
+ * adj). Il file contiene l'impronta, V e un double per vertice. Prima di usare
+ * i potenziali letti si controlla in O(E) che tutti i costi ridotti siano non
+ * negativi: i potenziali restituiti sono quindi sempre validi, anche se
+ * l'impronta collide o il file e' di una versione precedente del grafo.
+ */
+public class PotentialsCache {
+	private static final int MAGIC = 0x4a504331;
+	private final File directory;
+
+	/**
+	 * @param directory
+	 *            directory dei file della cache, creata se non esiste
+	 */
+	public PotentialsCache(String directory) {
+		this.directory = new File(directory);
+	}
+
+	/**
+	 * Impronta del grafo: V e, per ogni arco nell'ordine di adj, estremi e peso.
+	 */
+	public static long fingerprint(EdgeWeightedDigraph G) {
+		long h = mix(G.V());
+		for (int v = 0; v < G.V(); v++)
+			for (DirectedEdge e : G.adj(v)) {
+				h = mix(h ^ ((long) e.from() << 32 | e.to()));
+				h = mix(h ^ Double.doubleToLongBits(e.weight()));
+			}
+		return h;
+	}
+
+	// finalizer of SplitMix64
+	private static long mix(long z) {
+		z += 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private File file(long fingerprint) {
+		return new File(directory, String.format("%016x.pot", fingerprint));
+	}
+
+	/**
+	 * Potenziali di G salvati in precedenza.
+	 *
+	 * @return i potenziali, o null se non ci sono o non sono piu' validi per G.
+	 */
+	public double[] load(EdgeWeightedDigraph G) {
+		long fingerprint = fingerprint(G);
+		File file = file(fingerprint);
+		if (!file.exists())
+			return null;
+		double[] h = new double[G.V()];
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readLong() != fingerprint || in.readInt() != G.V())
+				return null;
+			for (int v = 0; v < h.length; v++)
+				h[v] = in.readDouble();
+		} catch (IOException e) {
+			return null;
+		}
+		for (int v = 0; v < G.V(); v++)
+			for (DirectedEdge e : G.adj(v))
+				if (!(e.weight() + h[e.from()] - h[e.to()] >= 0))
+					return null;
+		return h;
+	}
+
+	/**
+	 * Salva i potenziali h di G.
+	 */
+	public void store(EdgeWeightedDigraph G, double[] h) {
+		if (h.length != G.V())
+			throw new IllegalArgumentException("Potentials must have one entry per vertex");
+		long fingerprint = fingerprint(G);
+		File file = file(fingerprint);
+		File tmp = new File(file.getPath() + ".tmp");
+		try {
+			Files.createDirectories(directory.toPath());
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeInt(MAGIC);
+				out.writeLong(fingerprint);
+				out.writeInt(h.length);
+				for (double d : h)
+					out.writeDouble(d);
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write " + file, e);
+		}
+	}
+}
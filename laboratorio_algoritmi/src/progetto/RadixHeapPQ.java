@@ -0,0 +1,168 @@
+package progetto;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Radix heap indicizzato per chiavi double non negative estratte in ordine non
+ * decrescente, come in Dijkstra.
+ *
+ * Per i double non negativi l'ordine dei bit (letti come long) e' quello dei
+ * valori. Sia last l'ultimo minimo estratto: un indice con chiave k sta nel
+ * bucket dato dal bit piu' alto in cui k e last differiscono (0 se sono
+ * uguali). Quando il bucket 0 e' vuoto si prende il primo bucket non vuoto, il
+ * suo minimo diventa last e i suoi elementi scendono in bucket piu' bassi: ogni
+ * elemento scende al piu' 64 volte.
+ *
+ * Una chiave minore di last (Dijkstra non la produce, a meno di arrotondamenti)
+ * viene trattata come uguale a last; se la coda e' vuota, invece, last riparte
+ * da quella chiave, cosi' la stessa coda si puo' usare per piu' visite.
+ */
+public class RadixHeapPQ implements VertexPQ {
+	private static final int BUCKETS = 65;
+	private final int maxN;
+	private final double[] key;
+	/**
+	 * bits[i] = max(bit di key[i], last) al momento dell'inserimento, che
+	 * determina il bucket.
+	 */
+	private final long[] bits;
+	/**
+	 * Bucket come liste doppiamente collegate: head[b] e' il primo indice del
+	 * bucket b, bucket[i] il bucket di i (-1 se i non e' nella coda).
+	 */
+	private final int[] head = new int[BUCKETS];
+	private final int[] next, prev, bucket;
+	private long last;
+	private int n;
+
+	/**
+	 * @param maxN
+	 *            gli indici vanno da 0 a maxN - 1
+	 */
+	public RadixHeapPQ(int maxN) {
+		if (maxN < 0)
+			throw new IllegalArgumentException();
+		this.maxN = maxN;
+		this.key = new double[maxN];
+		this.bits = new long[maxN];
+		this.next = new int[maxN];
+		this.prev = new int[maxN];
+		this.bucket = new int[maxN];
+		for (int b = 0; b < BUCKETS; b++)
+			head[b] = -1;
+		for (int i = 0; i < maxN; i++)
+			bucket[i] = -1;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public boolean contains(int i) {
+		if (i < 0 || i >= maxN)
+			throw new IndexOutOfBoundsException();
+		return bucket[i] != -1;
+	}
+
+	public void insert(int i, double key) {
+		if (contains(i))
+			throw new IllegalArgumentException("index is already in the priority queue");
+		if (n == 0 && Double.doubleToLongBits(key) < last)
+			last = Math.max(Double.doubleToLongBits(key), 0L);
+		n++;
+		place(i, key);
+	}
+
+	public void decreaseKey(int i, double key) {
+		if (!contains(i))
+			throw new NoSuchElementException("index is not in the priority queue");
+		if (!(key < this.key[i]))
+			throw new IllegalArgumentException(
+					"Calling decreaseKey() with given argument would not strictly decrease the key");
+		unlink(i);
+		place(i, key);
+	}
+
+	public double minKey() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		refill();
+		return key[head[0]];
+	}
+
+	public int delMin() {
+		if (n == 0)
+			throw new NoSuchElementException("Priority queue underflow");
+		refill();
+		int min = head[0];
+		unlink(min);
+		bucket[min] = -1;
+		n--;
+		return min;
+	}
+
+	public void clear() {
+		for (int b = 0; b < BUCKETS; b++) {
+			for (int i = head[b]; i != -1; i = next[i])
+				bucket[i] = -1;
+			head[b] = -1;
+		}
+		last = 0;
+		n = 0;
+	}
+
+	/**
+	 * Se il bucket 0 e' vuoto, ridistribuisce il primo bucket non vuoto attorno al
+	 * suo minimo.
+	 */
+	private void refill() {
+		if (head[0] != -1)
+			return;
+		int b = 1;
+		while (head[b] == -1)
+			b++;
+		long min = Long.MAX_VALUE;
+		for (int i = head[b]; i != -1; i = next[i])
+			min = Math.min(min, bits[i]);
+		last = min;
+		int i = head[b];
+		head[b] = -1;
+		while (i != -1) {
+			int following = next[i];
+			link(i, bucketOf(bits[i]));
+			i = following;
+		}
+	}
+
+	private void place(int i, double key) {
+		this.key[i] = key;
+		bits[i] = Math.max(Double.doubleToLongBits(key), last);
+		link(i, bucketOf(bits[i]));
+	}
+
+	private int bucketOf(long b) {
+		return 64 - Long.numberOfLeadingZeros(b ^ last);
+	}
+
+	private void link(int i, int b) {
+		bucket[i] = b;
+		prev[i] = -1;
+		next[i] = head[b];
+		if (head[b] != -1)
+			prev[head[b]] = i;
+		head[b] = i;
+	}
+
+	private void unlink(int i) {
+		if (prev[i] != -1)
+			next[prev[i]] = next[i];
+		else
+			head[bucket[i]] = next[i];
+		if (next[i] != -1)
+			prev[next[i]] = prev[i];
+	}
+}
@@ -0,0 +1,82 @@
+package progetto;
+
+/**
+ * Vista ripesata di un EdgeWeightedDigraph secondo i potenziali di Johnson: il
+ * peso di u->v letto attraverso la vista e' peso + h[u] - h[v]. Gli archi e il
+ * grafo sottostante non vengono copiati ne' modificati, quindi piu' analisi
+ * possono condividere lo stesso grafo caricato.
+ *
+ * Se h e' null la vista restituisce i pesi originali.
+ */
+public class ReweightedDigraph {
+	private final EdgeWeightedDigraph G;
+	private final double[] h;
+
+	/**
+	 * @param G
+	 *            il grafo
+	 * @param h
+	 *            potenziali, uno per vertice, o null
+	 */
+	public ReweightedDigraph(EdgeWeightedDigraph G, double[] h) {
+		if (h != null && h.length != G.V())
+			throw new IllegalArgumentException("Potentials must have one entry per vertex");
+		this.G = G;
+		this.h = h;
+	}
+
+	/**
+	 * Peso ripesato dell'arco e.
+	 */
+	public double weight(DirectedEdge e) {
+		if (h == null)
+			return e.weight();
+		return e.weight() + h[e.from()] - h[e.to()];
+	}
+
+	/**
+	 * Potenziale del vertice v (0 se la vista non ha potenziali).
+	 */
+	public double potential(int v) {
+		return h == null ? 0.0 : h[v];
+	}
+
+	/**
+	 * Distanza originale da s a t, data la distanza ripesata.
+	 */
+	public double originalDistance(int s, int t, double reduced) {
+		return reduced - potential(s) + potential(t);
+	}
+
+	public EdgeWeightedDigraph graph() {
+		return G;
+	}
+
+	public int V() {
+		return G.V();
+	}
+
+	public int E() {
+		return G.E();
+	}
+
+	public Iterable<DirectedEdge> adj(int v) {
+		return G.adj(v);
+	}
+
+	public Iterable<DirectedEdge> inAdj(int v) {
+		return G.inAdj(v);
+	}
+
+	public int outdegree(int v) {
+		return G.outdegree(v);
+	}
+
+	public int indegree(int v) {
+		return G.indegree(v);
+	}
+
+	public int[] edgeOffsets() {
+		return G.edgeOffsets();
+	}
+}
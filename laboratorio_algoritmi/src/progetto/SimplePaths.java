@@ -0,0 +1,449 @@
+package progetto;
+
+import java.util.Arrays;
+
+/**
+ * Shortest path su un grafo degli shortest path che non e' un DAG perche'
+ * contiene cicli di peso 0. Gli shortest path da source a v sono i cammini
+ * semplici da source a v che usano solo archi del grafo, cioe' quelli generati
+ * da DijkstraSP.paths(): e' la convenzione di DijkstraSP, BrandesSP e
+ * BidirectionalSP, che ricorrono a questa classe solo quando l'ordinamento
+ * topologico trova un ciclo.
+ *
+ * Un cammino semplice attraversa le componenti fortemente connesse in ordine
+ * topologico, entra in ogni componente C da un vertice a e ci resta su un
+ * cammino semplice interno. Se inflow[a] e' il numero di cammini che arrivano
+ * in a da fuori C (1 per source), sigma[v] e' la somma su a di inflow[a] per
+ * il numero di cammini semplici da a a v dentro C. I cammini interni sono
+ * enumerati con una visita in profondita': il costo e' esponenziale nella
+ * dimensione delle componenti non banali, fatte solo di archi di peso 0, e
+ * lineare altrove.
+ *
+ * Dopo begin si registrano gli archi con addArc, poi build calcola le
+ * componenti e sigma. Gli array sono allocati una volta per V vertici e
+ * ripuliti solo sui vertici registrati.
+ */
+final class SimplePaths {
+	/**
+	 * local[v] = indice del vertice v tra quelli registrati (-1 se non
+	 * registrato), vertex[i] = vertice con indice i.
+	 */
+	private final int[] local, vertex;
+	private int n, source;
+	/**
+	 * Archi registrati: from[j] -> to[j] (indici locali), con l'identificativo
+	 * id[j] scelto da chi li registra.
+	 */
+	private int[] from, to, id;
+	private int m;
+	/**
+	 * Archi uscenti ed entranti in formato CSR: gli indici degli archi uscenti da
+	 * i sono outArc[outOffset[i]] ... outArc[outOffset[i + 1] - 1].
+	 */
+	private final int[] outOffset, inOffset;
+	private int[] outArc, inArc;
+	/**
+	 * comp[i] = componente di i. Tarjan numera le componenti in ordine
+	 * topologico inverso; i membri della componente c sono members[compStart[c]]
+	 * ... members[compStart[c + 1] - 1].
+	 */
+	private final int[] comp, members, compStart;
+	private int components;
+	/**
+	 * sigma[i] = cammini semplici da source a i, inflow[i] = quelli che entrano
+	 * in i da un'altra componente, value[i] = somma su ogni t raggiungibile da i
+	 * dei cammini da i a t divisi per sigma[t] (calcolato da accumulate per i
+	 * vertici con inflow > 0), out[i] = somma di value sui successori di i in
+	 * altre componenti.
+	 */
+	private final double[] sigma, inflow, value, out;
+	/**
+	 * Pila delle visite: stack[d] e' il vertice a profondita' d, cursor[d] il
+	 * prossimo arco uscente da provare, arc[d] l'arco con cui ci si e' arrivati e
+	 * total[d] la somma accumulata nel sottoalbero.
+	 */
+	private final int[] stack, cursor, arc;
+	private final double[] total;
+	private final boolean[] onPath;
+	private int depth;
+	/**
+	 * Di supporto a Tarjan.
+	 */
+	private final int[] index, low, sccStack;
+	private final boolean[] onStack;
+	/**
+	 * Stato di accumulate durante le visite: weight e' inflow della radice.
+	 */
+	private boolean accumulating;
+	private double weight;
+	private double[] delta, edgeScores;
+	private int[] offsets;
+
+	/**
+	 * @param V
+	 *            numero di vertici del grafo
+	 */
+	SimplePaths(int V) {
+		this.local = new int[V];
+		Arrays.fill(local, -1);
+		this.vertex = new int[V];
+		this.from = new int[16];
+		this.to = new int[16];
+		this.id = new int[16];
+		this.outOffset = new int[V + 1];
+		this.inOffset = new int[V + 1];
+		this.outArc = new int[16];
+		this.inArc = new int[16];
+		this.comp = new int[V];
+		this.members = new int[V];
+		this.compStart = new int[V + 1];
+		this.sigma = new double[V];
+		this.inflow = new double[V];
+		this.value = new double[V];
+		this.out = new double[V];
+		this.stack = new int[V];
+		this.cursor = new int[V];
+		this.arc = new int[V];
+		this.total = new double[V];
+		this.onPath = new boolean[V];
+		this.index = new int[V];
+		this.low = new int[V];
+		this.sccStack = new int[V];
+		this.onStack = new boolean[V];
+	}
+
+	/**
+	 * Inizia un nuovo grafo con sorgente s, senza archi.
+	 */
+	void begin(int s) {
+		for (int i = 0; i < n; i++)
+			local[vertex[i]] = -1;
+		n = 0;
+		m = 0;
+		source = register(s);
+	}
+
+	private int register(int v) {
+		if (local[v] == -1) {
+			local[v] = n;
+			vertex[n++] = v;
+		}
+		return local[v];
+	}
+
+	/**
+	 * Registra l'arco v->w del grafo degli shortest path. I cappi non stanno su
+	 * nessun cammino semplice e vengono ignorati.
+	 *
+	 * @param arcId
+	 *            identificativo dell'arco, restituito da accumulate
+	 */
+	void addArc(int v, int w, int arcId) {
+		if (v == w)
+			return;
+		if (m == from.length) {
+			from = Arrays.copyOf(from, 2 * m);
+			to = Arrays.copyOf(to, 2 * m);
+			id = Arrays.copyOf(id, 2 * m);
+		}
+		from[m] = register(v);
+		to[m] = register(w);
+		id[m++] = arcId;
+	}
+
+	/**
+	 * Costruisce gli archi in CSR, le componenti fortemente connesse e sigma.
+	 * Ogni vertice registrato deve essere raggiungibile da source.
+	 */
+	void build() {
+		if (outArc.length < m) {
+			outArc = new int[from.length];
+			inArc = new int[from.length];
+		}
+		Arrays.fill(outOffset, 0, n + 1, 0);
+		Arrays.fill(inOffset, 0, n + 1, 0);
+		for (int j = 0; j < m; j++) {
+			outOffset[from[j] + 1]++;
+			inOffset[to[j] + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			outOffset[i + 1] += outOffset[i];
+			inOffset[i + 1] += inOffset[i];
+		}
+		System.arraycopy(outOffset, 0, cursor, 0, n);
+		for (int j = 0; j < m; j++)
+			outArc[cursor[from[j]]++] = j;
+		System.arraycopy(inOffset, 0, cursor, 0, n);
+		for (int j = 0; j < m; j++)
+			inArc[cursor[to[j]]++] = j;
+		components();
+		countPaths();
+	}
+
+	/**
+	 * Tarjan iterativo sugli archi registrati.
+	 */
+	private void components() {
+		Arrays.fill(index, 0, n, -1);
+		int counter = 0, top = 0, k = 0;
+		components = 0;
+		for (int r = 0; r < n; r++) {
+			if (index[r] != -1)
+				continue;
+			depth = 0;
+			push(r);
+			index[r] = low[r] = counter++;
+			sccStack[top++] = r;
+			onStack[r] = true;
+			while (depth > 0) {
+				int v = stack[depth - 1];
+				if (cursor[depth - 1] < outOffset[v + 1]) {
+					int w = to[outArc[cursor[depth - 1]++]];
+					if (index[w] == -1) {
+						push(w);
+						index[w] = low[w] = counter++;
+						sccStack[top++] = w;
+						onStack[w] = true;
+					} else if (onStack[w])
+						low[v] = Math.min(low[v], index[w]);
+				} else {
+					onPath[v] = false;
+					depth--;
+					if (depth > 0)
+						low[stack[depth - 1]] = Math.min(low[stack[depth - 1]], low[v]);
+					if (low[v] == index[v]) {
+						int w;
+						do {
+							w = sccStack[--top];
+							onStack[w] = false;
+							comp[w] = components;
+							members[k++] = w;
+						} while (w != v);
+						compStart[++components] = k;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * sigma sulle componenti in ordine topologico.
+	 */
+	private void countPaths() {
+		Arrays.fill(sigma, 0, n, 0.0);
+		for (int c = components - 1; c >= 0; c--) {
+			for (int k = compStart[c]; k < compStart[c + 1]; k++) {
+				int a = members[k];
+				inflow[a] = a == source ? 1.0 : 0.0;
+				for (int q = inOffset[a]; q < inOffset[a + 1]; q++) {
+					int u = from[inArc[q]];
+					if (comp[u] != c)
+						inflow[a] += sigma[u];
+				}
+			}
+			for (int k = compStart[c]; k < compStart[c + 1]; k++) {
+				int a = members[k];
+				if (inflow[a] == 0.0)
+					continue;
+				push(a);
+				arc[0] = -1;
+				do
+					sigma[stack[depth - 1]] += inflow[a];
+				while (advance(c));
+			}
+		}
+	}
+
+	private void push(int v) {
+		stack[depth] = v;
+		cursor[depth] = outOffset[v];
+		onPath[v] = true;
+		depth++;
+	}
+
+	/**
+	 * Porta la visita dei cammini semplici interni alla componente c al prossimo
+	 * cammino, togliendo dalla pila i vertici senza altri archi da provare (in
+	 * accumulate chiudendone il sottoalbero con finish, tranne la radice).
+	 *
+	 * @return false quando la visita e' finita (pila vuota).
+	 */
+	private boolean advance(int c) {
+		while (depth > 0) {
+			int v = stack[depth - 1];
+			while (cursor[depth - 1] < outOffset[v + 1]) {
+				int j = outArc[cursor[depth - 1]++];
+				int w = to[j];
+				if (comp[w] == c && !onPath[w]) {
+					push(w);
+					arc[depth - 1] = j;
+					return true;
+				}
+			}
+			onPath[v] = false;
+			depth--;
+			if (accumulating && depth > 0) {
+				total[depth - 1] += total[depth];
+				finish(v, total[depth], arc[depth]);
+			}
+		}
+		return false;
+	}
+
+	private double term(int v) {
+		return v == source ? 0.0 : 1.0 / sigma[v];
+	}
+
+	/**
+	 * Il cammino che finiva in v ha somma S nel suo sottoalbero: v e' interno a
+	 * tutti i cammini del sottoalbero tranne quello che finisce in v.
+	 */
+	private void finish(int v, double S, int j) {
+		delta[vertex[v]] += weight * (S - term(v));
+		if (edgeScores != null && j != -1)
+			edgeScores[edgeIndex(j)] += weight * S;
+	}
+
+	private int edgeIndex(int j) {
+		return offsets == null ? id[j] : offsets[vertex[from[j]]] + id[j];
+	}
+
+	/**
+	 * Numero di cammini semplici da source a v, 0 se v non e' registrato.
+	 */
+	double sigma(int v) {
+		return local[v] == -1 ? 0.0 : sigma[local[v]];
+	}
+
+	/**
+	 * Dipendenze di Brandes per i cammini semplici: somma a delta[v] la
+	 * dipendenza di source da ogni vertice registrato v (source compreso, che va
+	 * ignorato) e, se edgeScores non e' null, a edgeScores quella da ogni arco.
+	 *
+	 * Per un cammino che entra nella componente C in a con inflow[a] modi e ci
+	 * resta fino a y, i vertici del cammino prima di y ricevono inflow[a] /
+	 * sigma[y] (il cammino verso y) e tutti ricevono inflow[a] * out[y] (i
+	 * cammini che escono da C dopo y): sommando sul sottoalbero della visita da a
+	 * basta un passaggio. Un arco tra componenti u->x riceve sigma[u] *
+	 * value[x].
+	 *
+	 * @param offsets
+	 *            se non e' null l'arco registrato con id k da v ha indice
+	 *            offsets[v] + k in edgeScores, altrimenti indice k
+	 */
+	void accumulate(double[] delta, int[] offsets, double[] edgeScores) {
+		this.delta = delta;
+		this.offsets = offsets;
+		this.edgeScores = edgeScores;
+		this.accumulating = true;
+		for (int c = 0; c < components; c++) {
+			for (int k = compStart[c]; k < compStart[c + 1]; k++) {
+				int y = members[k];
+				out[y] = 0.0;
+				for (int q = outOffset[y]; q < outOffset[y + 1]; q++) {
+					int j = outArc[q];
+					int x = to[j];
+					if (comp[x] != c) {
+						out[y] += value[x];
+						if (edgeScores != null)
+							edgeScores[edgeIndex(j)] += sigma[y] * value[x];
+					}
+				}
+			}
+			for (int k = compStart[c]; k < compStart[c + 1]; k++) {
+				int a = members[k];
+				if (inflow[a] == 0.0)
+					continue;
+				weight = inflow[a];
+				push(a);
+				arc[0] = -1;
+				total[0] = term(a) + out[a];
+				while (advance(c)) {
+					int y = stack[depth - 1];
+					total[depth - 1] = term(y) + out[y];
+				}
+				/*
+				 * advance ha gia' chiuso tutti i vertici tranne la radice.
+				 */
+				value[a] = total[0];
+				finish(a, total[0], -1);
+			}
+		}
+		this.accumulating = false;
+		this.delta = null;
+		this.edgeScores = null;
+	}
+
+	/**
+	 * Estrae uniformemente, con StdRandom, uno dei cammini semplici da source a
+	 * t e lo scrive in path da path[offset] = source in poi.
+	 *
+	 * @return il numero di vertici del cammino, 0 se t non e' registrato.
+	 */
+	int samplePath(int t, int[] path, int offset) {
+		if (local[t] == -1)
+			return 0;
+		int length = 0, v = local[t];
+		while (true) {
+			/*
+			 * Scelgo il cammino interno alla componente di v che finisce in v, con
+			 * probabilita' inflow del suo primo vertice / sigma[v].
+			 */
+			int c = comp[v];
+			double r = StdRandom.uniform() * sigma[v];
+			if (!choose(c, v, r))
+				choose(c, v, 0.0);
+			for (int d = depth - 1; d >= 0; d--)
+				path[offset + length++] = vertex[stack[d]];
+			int a = stack[0];
+			while (depth > 0)
+				onPath[stack[--depth]] = false;
+			if (a == source)
+				break;
+			/*
+			 * Poi l'arco con cui si entra in a, con probabilita' sigma[u] / inflow[a].
+			 */
+			r = StdRandom.uniform() * inflow[a];
+			int u = -1;
+			for (int q = inOffset[a]; q < inOffset[a + 1]; q++) {
+				int w = from[inArc[q]];
+				if (comp[w] != c) {
+					u = w;
+					r -= sigma[w];
+					if (r < 0)
+						break;
+				}
+			}
+			v = u;
+		}
+		for (int i = offset, j = offset + length - 1; i < j; i++, j--) {
+			int tmp = path[i];
+			path[i] = path[j];
+			path[j] = tmp;
+		}
+		return length;
+	}
+
+	/**
+	 * Cerca, nell'ordine delle visite da ogni vertice di c con inflow > 0, il
+	 * cammino interno che finisce in v dove r, diminuito di inflow del primo
+	 * vertice a ogni cammino, diventa negativo; se lo trova lo lascia sulla pila.
+	 */
+	private boolean choose(int c, int v, double r) {
+		for (int k = compStart[c]; k < compStart[c + 1]; k++) {
+			int a = members[k];
+			if (inflow[a] == 0.0)
+				continue;
+			push(a);
+			arc[0] = -1;
+			do
+				if (stack[depth - 1] == v) {
+					r -= inflow[a];
+					if (r < 0)
+						return true;
+				}
+			while (advance(c));
+		}
+		return false;
+	}
+}
@@ -0,0 +1,136 @@
+package progetto;
+
+import java.util.Arrays;
+
+/**
+ * I k vertici con betweenness centrality piu' alta, senza calcolare per forza
+ * tutti i punteggi esatti.
+ *
+ * Le sorgenti vengono visitate una alla volta (Brandes). Per ogni vertice v si
+ * mantengono un limite inferiore, la somma delle dipendenze gia' calcolate, e
+ * uno superiore: il limite inferiore piu' (sorgenti rimaste) * cap(v), dove
+ * cap(v) limita la dipendenza di una sorgente da v. La dipendenza di una
+ * sorgente da v non supera il numero di vertici raggiungibili da v (escluso
+ * v), noto esattamente appena v e' stato visitato come sorgente; prima vale
+ * n - 2, oppure 0 se v non ha archi entranti o uscenti.
+ *
+ * Ci si ferma quando il limite inferiore del k-esimo vertice supera i limiti
+ * superiori di tutti gli altri e, dentro i primi k, ognuno supera il limite
+ * superiore del successivo: l'insieme e il suo ordine sono certi.
+ */
+public class TopKBetweenness {
+	/**
+	 * I k vertici, dal piu' centrale.
+	 */
+	private int[] top;
+	/**
+	 * Intervallo del punteggio di ogni vertice in top.
+	 */
+	private double[] lower, upper;
+	/**
+	 * Numero di sorgenti visitate.
+	 */
+	private int processed;
+
+	/**
+	 * Calcola i k vertici piu' centrali di InputGraph.
+	 *
+	 * @param InputGraph
+	 *            grafo di input.
+	 * @param k
+	 *            numero di vertici richiesti, tra 1 e V.
+	 */
+	public TopKBetweenness(EdgeWeightedDigraph InputGraph, int k) {
+		int n = InputGraph.V();
+		if (k < 1 || k > n)
+			throw new IllegalArgumentException("k must be between 1 and " + n);
+		this.top = new int[k];
+		this.lower = new double[k];
+		this.upper = new double[k];
+		ReweightedDigraph G = BetweennessCentrality.johnson(InputGraph);
+		if (G == null)
+			return;
+		Stopwatch TopKSW = new Stopwatch();
+		double[] L = new double[n];
+		double[] cap = new double[n];
+		boolean[] done = new boolean[n];
+		for (int v = 0; v < n; v++)
+			cap[v] = G.indegree(v) == 0 || G.outdegree(v) == 0 ? 0 : Math.max(n - 2, 0);
+		/*
+		 * Visito prima le sorgenti con piu' archi: sono le candidate piu' probabili e
+		 * visitarle ne stringe subito il limite superiore.
+		 */
+		Integer[] sources = new Integer[n];
+		for (int v = 0; v < n; v++)
+			sources[v] = v;
+		Arrays.sort(sources, (a, b) -> Long.compare((long) G.indegree(b) * G.outdegree(b),
+				(long) G.indegree(a) * G.outdegree(a)));
+		int checkEvery = Math.max(1, n / 64);
+		BrandesSP bsp = new BrandesSP(G.V());
+		Integer[] ids = new Integer[n];
+		double[] U = new double[n];
+		while (true) {
+			if (processed == n || processed % checkEvery == 0) {
+				/*
+				 * Ordino per limite inferiore e controllo se i primi k sono certi.
+				 */
+				int remaining = n - processed;
+				for (int v = 0; v < n; v++) {
+					ids[v] = v;
+					U[v] = L[v] + (done[v] ? remaining : remaining - 1) * cap[v];
+				}
+				Arrays.sort(ids, (a, b) -> Double.compare(L[b], L[a]));
+				boolean certified = true;
+				for (int i = 0; i < k - 1 && certified; i++)
+					if (L[ids[i]] < U[ids[i + 1]])
+						certified = false;
+				for (int i = k; i < n && certified; i++)
+					if (L[ids[k - 1]] < U[ids[i]])
+						certified = false;
+				if (certified) {
+					for (int i = 0; i < k; i++) {
+						top[i] = ids[i];
+						lower[i] = L[ids[i]];
+						upper[i] = U[ids[i]];
+					}
+					break;
+				}
+			}
+			int s = sources[processed++];
+			bsp.run(G, s);
+			bsp.accumulate(G, L);
+			done[s] = true;
+			cap[s] = Math.min(cap[s], bsp.reached() - 1);
+		}
+		System.out.printf("Top-%d completato in %f secondi (%d sorgenti su %d).\n", k, TopKSW.elapsedTime(), processed,
+				n);
+	}
+
+	/**
+	 * I k vertici piu' centrali, in ordine decrescente di punteggio.
+	 */
+	public int[] getTop() {
+		return top;
+	}
+
+	/**
+	 * Limiti inferiori dei punteggi: lower[i] e' quello di getTop()[i].
+	 */
+	public double[] getLower() {
+		return lower;
+	}
+
+	/**
+	 * Limiti superiori dei punteggi: upper[i] e' quello di getTop()[i].
+	 */
+	public double[] getUpper() {
+		return upper;
+	}
+
+	/**
+	 * Numero di sorgenti effettivamente visitate.
+	 */
+	public int getProcessed() {
+		return processed;
+	}
+}
@@ -0,0 +1,94 @@
+package progetto;
+
+/**
+ * Coda con priorita' indicizzata sui vertici, con chiavi double: e' la coda
+ * usata da Dijkstra in DijkstraSP e BrandesSP, che si possono costruire con
+ * l'implementazione piu' adatta al grafo.
+ *
+ * Gli indici vanno da 0 a maxN - 1. Dijkstra estrae chiavi non decrescenti:
+ * le implementazioni possono sfruttarlo (RadixHeapPQ).
+ */
+public interface VertexPQ {
+	/**
+	 * Implementazioni disponibili.
+	 */
+	enum Type {
+		/**
+		 * Heap binario (IndexMinDoublePQ con d = 2).
+		 */
+		BINARY,
+		/**
+		 * Heap 4-ario (IndexMinDoublePQ con d = 4).
+		 */
+		FOUR_ARY,
+		/**
+		 * Heap 8-ario (IndexMinDoublePQ con d = 8).
+		 */
+		EIGHT_ARY,
+		/**
+		 * Pairing heap (PairingHeapPQ).
+		 */
+		PAIRING,
+		/**
+		 * Radix heap monotono (RadixHeapPQ).
+		 */
+		RADIX,
+		/**
+		 * MinPQ senza decreaseKey: si inserisce una copia e si scartano le vecchie
+		 * all'estrazione (LazyMinPQ).
+		 */
+		LAZY;
+
+		/**
+		 * Una coda vuota di questo tipo per indici da 0 a maxN - 1.
+		 */
+		public VertexPQ create(int maxN) {
+			switch (this) {
+			case BINARY:
+				return new IndexMinDoublePQ(maxN, 2);
+			case FOUR_ARY:
+				return new IndexMinDoublePQ(maxN, 4);
+			case EIGHT_ARY:
+				return new IndexMinDoublePQ(maxN, 8);
+			case PAIRING:
+				return new PairingHeapPQ(maxN);
+			case RADIX:
+				return new RadixHeapPQ(maxN);
+			default:
+				return new LazyMinPQ(maxN);
+			}
+		}
+	}
+
+	boolean isEmpty();
+
+	/**
+	 * L'indice i e' nella coda?
+	 */
+	boolean contains(int i);
+
+	/**
+	 * Inserisce l'indice i, che non deve essere nella coda, con chiave key.
+	 */
+	void insert(int i, double key);
+
+	/**
+	 * Porta a key, strettamente minore, la chiave dell'indice i.
+	 */
+	void decreaseKey(int i, double key);
+
+	/**
+	 * La chiave minima.
+	 */
+	double minKey();
+
+	/**
+	 * Toglie dalla coda un indice con chiave minima e lo restituisce.
+	 */
+	int delMin();
+
+	/**
+	 * Svuota la coda.
+	 */
+	void clear();
+}
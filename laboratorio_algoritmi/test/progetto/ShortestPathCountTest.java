@@ -0,0 +1,101 @@
+package progetto;
+
+/**
+ * Controlli sul numero di shortest path con cicli di peso 0: sigma deve
+ * contare i cammini semplici, gli stessi generati da DijkstraSP.paths(). Si
+ * esegue con java progetto.ShortestPathCountTest (con le classi di src nel
+ * classpath) e termina con un AssertionError al primo controllo fallito.
+ */
+public class ShortestPathCountTest {
+
+	/**
+	 * 0->1 e 1->0 di peso 0 formano un ciclo per la sorgente 0; 0->2 e' fuori dal
+	 * ciclo.
+	 */
+	private static EdgeWeightedDigraph zeroCycleThroughSource() {
+		EdgeWeightedDigraph G = new EdgeWeightedDigraph(4);
+		G.addEdge(new DirectedEdge(0, 1, 0));
+		G.addEdge(new DirectedEdge(1, 0, 0));
+		G.addEdge(new DirectedEdge(0, 3, 1));
+		G.addEdge(new DirectedEdge(1, 3, 1));
+		G.addEdge(new DirectedEdge(0, 2, 5));
+		return G;
+	}
+
+	/**
+	 * Ciclo di peso 0 tra 1, 2 e 3 lontano dalla sorgente 0, con due ingressi e
+	 * un'uscita verso 4.
+	 */
+	private static EdgeWeightedDigraph zeroCycleInside() {
+		EdgeWeightedDigraph G = new EdgeWeightedDigraph(5);
+		G.addEdge(new DirectedEdge(0, 1, 1));
+		G.addEdge(new DirectedEdge(0, 2, 1));
+		G.addEdge(new DirectedEdge(1, 2, 0));
+		G.addEdge(new DirectedEdge(2, 3, 0));
+		G.addEdge(new DirectedEdge(3, 1, 0));
+		G.addEdge(new DirectedEdge(3, 4, 2));
+		return G;
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition)
+			throw new AssertionError(message);
+	}
+
+	/**
+	 * getSigma()[t] e BrandesSP.sigma(t) sono il numero di cammini di paths(t)
+	 * per ogni t.
+	 */
+	private static void sigmaMatchesPaths(EdgeWeightedDigraph G) {
+		ReweightedDigraph view = new ReweightedDigraph(G, null);
+		BrandesSP brandes = new BrandesSP(G.V());
+		for (int s = 0; s < G.V(); s++) {
+			DijkstraSP sp = new DijkstraSP(G, s);
+			brandes.run(view, s);
+			for (int t = 0; t < G.V(); t++) {
+				int count = 0;
+				for (DijkstraSP.Path p : sp.paths(t))
+					count++;
+				check(sp.getSigma()[t] == count,
+						"s = " + s + ", t = " + t + ": sigma " + sp.getSigma()[t] + ", paths " + count);
+				check(brandes.sigma(t) == count,
+						"s = " + s + ", t = " + t + ": BrandesSP " + brandes.sigma(t) + ", paths " + count);
+			}
+		}
+	}
+
+	/**
+	 * BidirectionalSP.pathCount() e' BrandesSP.sigma(t) per ogni coppia s, t.
+	 */
+	private static void bidirectionalMatchesBrandes(EdgeWeightedDigraph G) {
+		ReweightedDigraph view = new ReweightedDigraph(G, null);
+		BrandesSP brandes = new BrandesSP(G.V());
+		BidirectionalSP bidirectional = new BidirectionalSP(G.V());
+		for (int s = 0; s < G.V(); s++) {
+			brandes.run(view, s);
+			for (int t = 0; t < G.V(); t++) {
+				bidirectional.run(view, s, t);
+				check(bidirectional.pathCount() == brandes.sigma(t), "s = " + s + ", t = " + t
+						+ ": BidirectionalSP " + bidirectional.pathCount() + ", BrandesSP " + brandes.sigma(t));
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		EdgeWeightedDigraph G = zeroCycleThroughSource();
+		DijkstraSP sp = new DijkstraSP(G, 0);
+		check(sp.getSigma()[0] == 1, "sigma[0] = " + sp.getSigma()[0]);
+		check(sp.getSigma()[1] == 1, "sigma[1] = " + sp.getSigma()[1]);
+		check(sp.getSigma()[2] == 1, "sigma[2] = " + sp.getSigma()[2]);
+		check(sp.getSigma()[3] == 2, "sigma[3] = " + sp.getSigma()[3]);
+		sigmaMatchesPaths(G);
+		bidirectionalMatchesBrandes(G);
+		G = zeroCycleInside();
+		sp = new DijkstraSP(G, 0);
+		check(sp.getSigma()[3] == 2, "sigma[3] = " + sp.getSigma()[3]);
+		check(sp.getSigma()[4] == 2, "sigma[4] = " + sp.getSigma()[4]);
+		sigmaMatchesPaths(G);
+		bidirectionalMatchesBrandes(G);
+		System.out.println("ShortestPathCountTest: OK");
+	}
+}